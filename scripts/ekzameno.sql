@@ -1,5 +1,6 @@
 CREATE TABLE users (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     email text UNIQUE NOT NULL,
     name text NOT NULL,
     password_hash text NOT NULL,
@@ -8,6 +9,7 @@ CREATE TABLE users (
 
 CREATE TABLE subjects (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     name text NOT NULL,
     description text NOT NULL,
     slug text UNIQUE NOT NULL
@@ -15,6 +17,7 @@ CREATE TABLE subjects (
 
 CREATE TABLE exams (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     name text NOT NULL,
     description text NOT NULL,
     slug text UNIQUE NOT NULL,
@@ -25,6 +28,7 @@ CREATE TABLE exams (
 
 CREATE TABLE questions (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     question text NOT NULL,
     type text NOT NULL,
     marks integer NOT NULL,
@@ -33,6 +37,7 @@ CREATE TABLE questions (
 
 CREATE TABLE options (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     answer text NOT NULL,
     correct boolean NOT NULL,
     question_id uuid NOT NULL REFERENCES questions ON DELETE CASCADE
@@ -40,14 +45,18 @@ CREATE TABLE options (
 
 CREATE TABLE exam_submissions (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     user_id uuid NOT NULL REFERENCES users ON DELETE CASCADE,
     exam_id uuid NOT NULL REFERENCES exams ON DELETE CASCADE,
     marks integer,
     UNIQUE(user_id, exam_id)
 );
 
+CREATE INDEX exam_submissions_exam_id_id_idx ON exam_submissions (exam_id, id);
+
 CREATE TABLE question_submissions (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     answer text,
     exam_submission_id uuid NOT NULL REFERENCES exam_submissions ON DELETE CASCADE,
     question_id uuid NOT NULL REFERENCES questions ON DELETE CASCADE,
@@ -57,6 +66,7 @@ CREATE TABLE question_submissions (
 
 CREATE TABLE instructor_subjects (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     user_id uuid NOT NULL REFERENCES users ON DELETE CASCADE,
     subject_id uuid NOT NULL REFERENCES subjects ON DELETE CASCADE,
     UNIQUE(user_id, subject_id)
@@ -64,6 +74,7 @@ CREATE TABLE instructor_subjects (
 
 CREATE TABLE enrolments (
     id uuid PRIMARY KEY,
+    version integer NOT NULL DEFAULT 0,
     user_id uuid NOT NULL REFERENCES users ON DELETE CASCADE,
     subject_id uuid NOT NULL REFERENCES subjects ON DELETE CASCADE,
     UNIQUE(user_id, subject_id)
@@ -0,0 +1,185 @@
+package com.ekzameno.ekzameno.mappers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNotNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import com.ekzameno.ekzameno.shared.PrincipalCache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that changes published with NOTIFY by another node are evicted by a
+ * running {@link EntityCacheListener}. Requires JDBC_DATABASE_URL to point at
+ * a Postgres database.
+ */
+public class EntityCacheListenerIT {
+    private static final String TABLE = "subjects";
+    private static final long TIMEOUT_MS = 10000;
+
+    private final String url = System.getenv("JDBC_DATABASE_URL");
+    private EntityCacheListener listener;
+    private Connection connection;
+
+    /**
+     * Start a listener, and wait until it is listening.
+     *
+     * @throws Exception if the listener does not start listening
+     */
+    @Before
+    public void setUp() throws Exception {
+        assumeNotNull(url);
+        connection = DriverManager.getConnection(url);
+        listener = new EntityCacheListener(url);
+        listener.start();
+
+        // The listener evicts every row once it is listening, and the
+        // sentinel once its notification arrives, whichever comes first.
+        UUID sentinel = UUID.randomUUID();
+        cacheRow(sentinel);
+        publish(EntityCache.CHANNEL, sentinel);
+        awaitTrue(() -> EntityCache.get(TABLE, "id", sentinel) == null);
+    }
+
+    /**
+     * Stop the listener.
+     *
+     * @throws SQLException if unable to close the connection
+     */
+    @After
+    public void tearDown() throws SQLException {
+        if (listener != null) {
+            listener.shutdown();
+        }
+
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Rows published on the entity cache channel are evicted, and only them.
+     *
+     * @throws Exception if the row is not evicted
+     */
+    @Test
+    public void evictsPublishedRows() throws Exception {
+        UUID changed = UUID.randomUUID();
+        UUID unchanged = UUID.randomUUID();
+        cacheRow(changed);
+        cacheRow(unchanged);
+
+        publish(EntityCache.CHANNEL, changed);
+
+        awaitTrue(() -> EntityCache.get(TABLE, "id", changed) == null);
+        assertNotNull(EntityCache.get(TABLE, "id", unchanged));
+    }
+
+    /**
+     * Users published on the principal channel are evicted from the principal
+     * cache without evicting any rows.
+     *
+     * @throws Exception if the user is not evicted
+     */
+    @Test
+    public void evictsPublishedPrincipals() throws Exception {
+        PrincipalCache principals = PrincipalCache.getInstance();
+        UUID user = UUID.randomUUID();
+        UUID row = UUID.randomUUID();
+        principals.put(user, "STUDENT", principals.getGeneration());
+        cacheRow(row);
+        long generation = EntityCache.getGeneration();
+
+        publish(EntityCache.PRINCIPAL_CHANNEL, user);
+
+        awaitTrue(() -> principals.get(user) == null);
+        assertNotNull(EntityCache.get(TABLE, "id", row));
+        assertEquals(generation, EntityCache.getGeneration());
+    }
+
+    /**
+     * Malformed notifications are skipped without stopping the listener.
+     *
+     * @throws Exception if a later row is not evicted
+     */
+    @Test
+    public void skipsMalformedNotifications() throws Exception {
+        UUID changed = UUID.randomUUID();
+        cacheRow(changed);
+
+        publish(EntityCache.CHANNEL, "");
+        publish(EntityCache.PRINCIPAL_CHANNEL, "not-a-uuid");
+        publish(EntityCache.CHANNEL, "not-a-uuid," + changed);
+
+        awaitTrue(() -> EntityCache.get(TABLE, "id", changed) == null);
+
+        UUID later = UUID.randomUUID();
+        cacheRow(later);
+        publish(EntityCache.CHANNEL, later);
+
+        awaitTrue(() -> EntityCache.get(TABLE, "id", later) == null);
+    }
+
+    private void cacheRow(UUID id) throws SQLException {
+        long generation = EntityCache.getGeneration();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT ?::uuid, 1"
+            );
+        ) {
+            statement.setObject(1, id);
+
+            try (ResultSet rs = statement.executeQuery();) {
+                rs.next();
+                EntityCache.put(TABLE, "id", id, Row.read(rs, 2), generation);
+            }
+        }
+
+        assertNotNull(EntityCache.get(TABLE, "id", id));
+    }
+
+    private void publish(String channel, UUID id) throws SQLException {
+        publish(channel, id.toString());
+    }
+
+    private void publish(
+        String channel,
+        String payload
+    ) throws SQLException {
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_notify(?, ?)"
+            );
+        ) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.executeQuery().close();
+        }
+    }
+
+    private static void awaitTrue(
+        BooleanSupplier condition
+    ) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+
+        while (!condition.getAsBoolean()) {
+            assertTrue(
+                "Timed out waiting for the listener",
+                System.currentTimeMillis() < deadline
+            );
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ekzameno.ekzameno.filters;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.Key;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.HttpHeaders;
+
+import com.ekzameno.ekzameno.services.AuthService;
+import com.ekzameno.ekzameno.shared.BenchmarkFixture;
+import com.ekzameno.ekzameno.shared.DBConnection;
+import com.ekzameno.ekzameno.shared.PrincipalCache;
+import com.ekzameno.ekzameno.shared.Transaction;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Measures authenticating a request from the claims of its token alone
+ * against looking its user's type up, either in the principal cache or in
+ * the database. Each request runs in its own transaction, as it would behind
+ * the TransactionFilter. Requires JWT_SECRET, JWT_STATELESS=true, and
+ * JDBC_DATABASE_URL to point at a database with the schema in
+ * scripts/ekzameno.sql.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthFilterBenchmark {
+    private final AuthFilter filter = new AuthFilter();
+    private final UUID userId = UUID.randomUUID();
+    private ContainerRequest withRole;
+    private ContainerRequest withoutRole;
+
+    /**
+     * Create a user, and requests carrying tokens for them with and without
+     * their role.
+     *
+     * @throws SQLException if unable to create the user
+     */
+    @Setup
+    public void setUp() throws SQLException {
+        if (!new AuthService().isStateless()) {
+            throw new IllegalStateException("JWT_STATELESS must be true");
+        }
+
+        try (Transaction transaction = Transaction.begin()) {
+            BenchmarkFixture.execute(
+                DBConnection.getCurrent().getConnection(),
+                "INSERT INTO users (id, email, name, password_hash, type) " +
+                    "VALUES (?, ?, 'Benchmark', '', 'STUDENT')",
+                userId,
+                userId + "@benchmark"
+            );
+            transaction.commit();
+        }
+
+        Key key = Keys.hmacShaKeyFor(
+            Decoders.BASE64.decode(System.getenv("JWT_SECRET"))
+        );
+        Date expiration = new Date(System.currentTimeMillis() + 3600000);
+        withRole = request(
+            Jwts.builder()
+                .setSubject(userId.toString())
+                .claim(AuthService.ROLE_CLAIM, "STUDENT")
+                .setExpiration(expiration)
+                .signWith(key)
+                .compact()
+        );
+        // Tokens without a role always have their user looked up.
+        withoutRole = request(
+            Jwts.builder()
+                .setSubject(userId.toString())
+                .setExpiration(expiration)
+                .signWith(key)
+                .compact()
+        );
+    }
+
+    /**
+     * Delete the user.
+     *
+     * @throws SQLException if unable to delete the user
+     */
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Transaction transaction = Transaction.begin()) {
+            BenchmarkFixture.execute(
+                DBConnection.getCurrent().getConnection(),
+                "DELETE FROM users WHERE id = ?",
+                userId
+            );
+            transaction.commit();
+        }
+    }
+
+    /**
+     * Authenticate a request from the role claim of its token.
+     *
+     * @return the authenticated request
+     * @throws IOException if unable to filter the request
+     */
+    @Benchmark
+    public ContainerRequest stateless() throws IOException {
+        return authenticate(withRole);
+    }
+
+    /**
+     * Authenticate a request whose user's type is in the principal cache.
+     *
+     * @return the authenticated request
+     * @throws IOException if unable to filter the request
+     */
+    @Benchmark
+    public ContainerRequest cachedPrincipal() throws IOException {
+        return authenticate(withoutRole);
+    }
+
+    /**
+     * Authenticate a request whose user's type has to be read from the
+     * database.
+     *
+     * @return the authenticated request
+     * @throws IOException if unable to filter the request
+     */
+    @Benchmark
+    public ContainerRequest databaseLookup() throws IOException {
+        PrincipalCache.getInstance().invalidate(List.of(userId));
+        return authenticate(withoutRole);
+    }
+
+    private ContainerRequest authenticate(
+        ContainerRequest request
+    ) throws IOException {
+        Transaction transaction = Transaction.begin();
+
+        try {
+            filter.filter(request);
+        } finally {
+            transaction.close();
+        }
+
+        if (request.getAbortResponse() != null) {
+            throw new IllegalStateException("Request was not authenticated");
+        }
+
+        return request;
+    }
+
+    private static ContainerRequest request(String jwt) {
+        ContainerRequest request = new ContainerRequest(
+            URI.create("http://localhost/api/"),
+            URI.create("http://localhost/api/me"),
+            "GET",
+            null,
+            new MapPropertiesDelegate()
+        );
+        request.getHeaders().add(HttpHeaders.COOKIE, "jwt=" + jwt);
+        return request;
+    }
+}
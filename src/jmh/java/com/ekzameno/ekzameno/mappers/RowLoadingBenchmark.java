@@ -0,0 +1,105 @@
+package com.ekzameno.ekzameno.mappers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import com.ekzameno.ekzameno.shared.BenchmarkFixture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures building options from the rows of a result set. The rows are
+ * selected once and scrolled over repeatedly, so only reading them and
+ * creating the models is measured, not the query. Requires JDBC_DATABASE_URL
+ * to point at a database with the schema in scripts/ekzameno.sql.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowLoadingBenchmark {
+    private static final int ROWS = 10000;
+    private final BenchmarkFixture fixture = new BenchmarkFixture();
+    private final OptionMapper mapper = new OptionMapper();
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet rs;
+
+    /**
+     * Create a question with options, and select them.
+     *
+     * @throws SQLException if unable to create or select the options
+     */
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+            System.getenv("JDBC_DATABASE_URL")
+        );
+        fixture.create(connection);
+        BenchmarkFixture.execute(
+            connection,
+            "INSERT INTO options (id, answer, correct, question_id) " +
+                "SELECT gen_random_uuid(), 'Option ' || i, i % 4 = 0, ? " +
+                "FROM generate_series(1, " + ROWS + ") AS i",
+            fixture.getQuestionId()
+        );
+
+        statement = connection.prepareStatement(
+            "SELECT options.id, options.version, options.answer, " +
+                "options.correct, options.question_id FROM options " +
+                "WHERE question_id = ?",
+            ResultSet.TYPE_SCROLL_INSENSITIVE,
+            ResultSet.CONCUR_READ_ONLY
+        );
+        statement.setObject(1, fixture.getQuestionId());
+        rs = statement.executeQuery();
+    }
+
+    /**
+     * Delete the options, along with the question, exam and subject they
+     * belong to.
+     *
+     * @throws SQLException if unable to delete the options
+     */
+    @TearDown
+    public void tearDown() throws SQLException {
+        rs.close();
+        statement.close();
+        fixture.delete(connection);
+        connection.close();
+    }
+
+    /**
+     * Load a model from every row.
+     *
+     * @param blackhole consumes the loaded models
+     * @throws SQLException if unable to read the rows
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void load(Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+
+        while (rs.next()) {
+            blackhole.consume(mapper.load(rs));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Rows shared by the benchmarks which need a question to work with. The
+ * question belongs to an exam and subject of its own, and deleting the
+ * subject deletes everything created under it.
+ */
+public class BenchmarkFixture {
+    private final UUID subjectId = UUID.randomUUID();
+    private final UUID examId = UUID.randomUUID();
+    private final UUID questionId = UUID.randomUUID();
+
+    /**
+     * Retrieve the ID of the question.
+     *
+     * @return ID of the question
+     */
+    public UUID getQuestionId() {
+        return questionId;
+    }
+
+    /**
+     * Create the subject, exam and question.
+     *
+     * @param connection connection to create them with
+     * @throws SQLException if unable to create them
+     */
+    public void create(Connection connection) throws SQLException {
+        execute(
+            connection,
+            "INSERT INTO subjects (id, name, description, slug) " +
+                "VALUES (?, 'Benchmark', '', ?)",
+            subjectId,
+            subjectId.toString()
+        );
+        execute(
+            connection,
+            "INSERT INTO exams (id, name, description, slug, subject_id) " +
+                "VALUES (?, 'Benchmark', '', ?, ?)",
+            examId,
+            examId.toString(),
+            subjectId
+        );
+        execute(
+            connection,
+            "INSERT INTO questions (id, question, type, marks, exam_id) " +
+                "VALUES (?, 'Benchmark', 'MULTIPLE_CHOICE', 1, ?)",
+            questionId,
+            examId
+        );
+    }
+
+    /**
+     * Delete the subject, along with everything created under it.
+     *
+     * @param connection connection to delete it with
+     * @throws SQLException if unable to delete the subject
+     */
+    public void delete(Connection connection) throws SQLException {
+        execute(connection, "DELETE FROM subjects WHERE id = ?", subjectId);
+    }
+
+    /**
+     * Execute an update with the given parameters.
+     *
+     * @param connection connection to execute the update with
+     * @param query      query to execute
+     * @param params     parameters of the query, in order
+     * @throws SQLException if unable to execute the update
+     */
+    public static void execute(
+        Connection connection,
+        String query,
+        Object... params
+    ) throws SQLException {
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+
+            statement.executeUpdate();
+        }
+    }
+}
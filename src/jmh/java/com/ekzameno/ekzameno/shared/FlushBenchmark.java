@@ -0,0 +1,113 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.ekzameno.ekzameno.mappers.Mapper;
+import com.ekzameno.ekzameno.models.Option;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures flushing new options to the database from a unit of work, which
+ * batches them, against inserting them one row at a time. Every transaction
+ * is rolled back, so the table does not grow. Requires JDBC_DATABASE_URL to
+ * point at a database with the schema in scripts/ekzameno.sql.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlushBenchmark {
+    @Param({ "10", "100", "1000" })
+    private int count;
+    private final BenchmarkFixture fixture = new BenchmarkFixture();
+
+    /**
+     * Create a question for the options to belong to.
+     *
+     * @throws SQLException if unable to create the question
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        try (Transaction transaction = Transaction.begin()) {
+            fixture.create(DBConnection.getCurrent().getConnection());
+            transaction.commit();
+        }
+    }
+
+    /**
+     * Delete the question, along with the exam and subject it belongs to.
+     *
+     * @throws SQLException if unable to delete the question
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Transaction transaction = Transaction.begin()) {
+            fixture.delete(DBConnection.getCurrent().getConnection());
+            transaction.commit();
+        }
+    }
+
+    /**
+     * Flush new options by committing the unit of work.
+     *
+     * @throws SQLException if unable to insert the options
+     */
+    @Benchmark
+    public void batched() throws SQLException {
+        try (Transaction transaction = Transaction.begin()) {
+            createOptions();
+            UnitOfWork.getCurrent().commit();
+            transaction.rollback();
+        }
+    }
+
+    /**
+     * Insert new options with a statement each.
+     *
+     * @throws SQLException if unable to insert the options
+     */
+    @Benchmark
+    public void perRow() throws SQLException {
+        Mapper<Option> mapper = Mapper.getMapper(Option.class);
+
+        try (Transaction transaction = Transaction.begin()) {
+            for (Option option : createOptions()) {
+                mapper.insertAll(List.of(option));
+            }
+
+            transaction.rollback();
+        }
+    }
+
+    private List<Option> createOptions() {
+        List<Option> options = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            options.add(new Option(
+                "Option " + i,
+                false,
+                fixture.getQuestionId()
+            ));
+        }
+
+        return options;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.ekzameno.ekzameno.models.Option;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of registering a model with a unit of work which is
+ * already tracking a given number of models. The cost should not grow with
+ * the size of the unit of work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitOfWorkBenchmark {
+    private static final int UNTRACKED = 1024;
+
+    @Param({ "1000", "10000", "100000" })
+    private int size;
+    private UnitOfWork unitOfWork;
+    private Option[] tracked;
+    private Option[] untracked;
+    private int next = 0;
+
+    /**
+     * Fill a unit of work with dirty models.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        UnitOfWork.newCurrent();
+        unitOfWork = UnitOfWork.getCurrent();
+        tracked = createOptions(size);
+        untracked = createOptions(UNTRACKED);
+
+        for (Option option : tracked) {
+            unitOfWork.registerDirty(option);
+        }
+    }
+
+    /**
+     * Register a model which is already tracked, which only checks whether
+     * it is tracked.
+     */
+    @Benchmark
+    public void registerTracked() {
+        unitOfWork.registerDirty(tracked[next]);
+        next = (next + 1) % tracked.length;
+    }
+
+    /**
+     * Register a new model and then delete it again, so the unit of work
+     * stays the same size.
+     */
+    @Benchmark
+    public void registerAndDeleteUntracked() {
+        Option option = untracked[next % UNTRACKED];
+        unitOfWork.registerNew(option);
+        unitOfWork.registerDeleted(option);
+        next = (next + 1) % UNTRACKED;
+    }
+
+    private static Option[] createOptions(int count) {
+        Option[] options = new Option[count];
+        UUID questionId = UUID.randomUUID();
+
+        for (int i = 0; i < count; i++) {
+            options[i] = new Option(
+                UUID.randomUUID(),
+                "answer",
+                false,
+                questionId
+            );
+        }
+
+        return options;
+    }
+}
@@ -5,10 +5,11 @@ import React, { useEffect, useState } from "react";
 import { Alert, Button, Card, Form } from "react-bootstrap";
 import { useSelector } from "react-redux";
 import Select from "react-select";
+import { fetchExamPaper } from "../../redux/paper";
 import { ExamState, selectExamById } from "../../redux/slices/examsSlice";
 import { createExamSubmission, fetchExamSubmissions, selectExamSubmissionsForExam } from "../../redux/slices/examSubmissionsSlice";
-import { fetchOptions, selectAllOptions } from "../../redux/slices/optionsSlice";
-import { deleteQuestion, fetchQuestions, questionLabels, selectQuestionsForExam } from "../../redux/slices/questionsSlice";
+import { selectAllOptions } from "../../redux/slices/optionsSlice";
+import { deleteQuestion, questionLabels, selectQuestionsForExam } from "../../redux/slices/questionsSlice";
 import { selectQuestionSubmissionsForExamSubmission } from "../../redux/slices/questionSubmissionsSlice";
 import { selectMe } from "../../redux/slices/usersSlice";
 import { RootState, useAppDispatch } from "../../redux/store";
@@ -43,17 +44,18 @@ export const Questions = (props: QuestionProps): JSX.Element => {
   const [questionModalShow, setQuestionModalShow] = useState<string | null>(null);
   const me = useSelector(selectMe);
   const options = useSelector(selectAllOptions);
-  const multipleChoiceQuestionIds = questions
-    .filter(q => q.type === "MULTIPLE_CHOICE")
-    .map(q => q.id);
   const [loadingQuestions, setLoadingQuestions] = useState(true);
   const [loadingSubmissions, setLoadingSubmissions] = useState(true);
-
-  const joinedMultipleChoiceQuestionIds = multipleChoiceQuestionIds.join("");
   const [errorMessage, setErrorMessage] = useState<string | null>(null);
 
+  const slug = exam?.slug;
+
   useEffect(() => {
-    dispatch(fetchQuestions(props.examId))
+    if (slug === undefined) {
+      return;
+    }
+
+    dispatch(fetchExamPaper(slug))
       .then(unwrapResult)
       .then(() => {
         setLoadingQuestions(false);
@@ -61,21 +63,10 @@ export const Questions = (props: QuestionProps): JSX.Element => {
       .catch(e => {
         console.error(e);
       });
-  }, [props.examId, dispatch]);
-
-  useEffect(() => {
-    multipleChoiceQuestionIds.forEach(qid => {
-      dispatch(fetchOptions(qid))
-        .then(unwrapResult)
-        .catch(e => {
-          console.error(e);
-        });
-    });
-    // eslint-disable-next-line react-hooks/exhaustive-deps
-  }, [dispatch, joinedMultipleChoiceQuestionIds]);
+  }, [slug, dispatch]);
 
   useEffect(() => {
-    dispatch(fetchExamSubmissions(props.examId))
+    dispatch(fetchExamSubmissions({ examId: props.examId }))
       .then(unwrapResult)
       .then(() => {
         setLoadingSubmissions(false);
@@ -1,4 +1,3 @@
-/* eslint-disable @typescript-eslint/no-non-null-assertion */
 import { unwrapResult } from "@reduxjs/toolkit";
 import { Formik } from "formik";
 import { FormikControl } from "formik-react-bootstrap";
@@ -8,7 +7,7 @@ import { useSelector } from "react-redux";
 import Select from "react-select";
 import * as yup from "yup";
 import { addSubject, updateSubject } from "../../redux/slices/subjectsSlice";
-import { fetchUsers, selectInstructors, selectMe, selectStudents } from "../../redux/slices/usersSlice";
+import { fetchUsers, selectInstructors, selectMe, selectStudents, selectUsersNext } from "../../redux/slices/usersSlice";
 import { useAppDispatch } from "../../redux/store";
 
 export interface SubjectModalProps {
@@ -51,6 +50,8 @@ export const SubjectModal = (props: UpdateSubjectModalProps | SubjectModalProps)
   const instructors = useSelector(selectInstructors);
   const [errorMessage, setErrorMessage] = useState<string | null>(null);
   const meType = useSelector(selectMe)?.type;
+  const next = useSelector(selectUsersNext);
+  const [loadingUsers, setLoadingUsers] = useState(false);
 
   useEffect(() => {
     if (meType !== "STUDENT") {
@@ -63,6 +64,22 @@ export const SubjectModal = (props: UpdateSubjectModalProps | SubjectModalProps)
     }
   }, [dispatch, meType]);
 
+  // Users are loaded a page at a time as the options are scrolled through.
+  const handleLoadMoreUsers = (): void => {
+    if (next === null || loadingUsers) {
+      return;
+    }
+
+    setLoadingUsers(true);
+    dispatch(fetchUsers(next))
+      .then(unwrapResult)
+      .catch((e: Error) => {
+        setErrorMessage("Failed to retrieve users");
+        console.error(e);
+      })
+      .finally(() => setLoadingUsers(false));
+  };
+
   const handleHide = (): void => {
     setErrorMessage(null);
     props.onHide();
@@ -141,15 +158,15 @@ export const SubjectModal = (props: UpdateSubjectModalProps | SubjectModalProps)
           instructors: (props as UpdateSubjectModalProps).instructors?.map(i => {
             const instructor = instructors.find(i2 => i2.id === i);
             return {
-              label: instructor!.name,
-              value: instructor!.id,
+              label: instructor?.name ?? i,
+              value: i,
             };
           }) ?? [],
           students: (props as UpdateSubjectModalProps).students?.map(s => {
             const student = students.find(s2 => s2.id === s);
             return {
-              label: student!.name,
-              value: student!.id,
+              label: student?.name ?? s,
+              value: s,
             };
           }) ?? [],
         }}
@@ -184,6 +201,8 @@ export const SubjectModal = (props: UpdateSubjectModalProps | SubjectModalProps)
                     name="instructors"
                     value={values.instructors}
                     onChange={option => setFieldValue("instructors", option ?? [])}
+                    onMenuScrollToBottom={handleLoadMoreUsers}
+                    isLoading={loadingUsers}
                     isDisabled={isSubmitting}
                     onBlur={handleBlur} />
                   <Form.Control.Feedback className={touched.instructors && errors.instructors && "d-block"} type="invalid">
@@ -198,6 +217,8 @@ export const SubjectModal = (props: UpdateSubjectModalProps | SubjectModalProps)
                     name="students"
                     value={values.students}
                     onChange={option => setFieldValue("students", option ?? [])}
+                    onMenuScrollToBottom={handleLoadMoreUsers}
+                    isLoading={loadingUsers}
                     isDisabled={isSubmitting}
                     onBlur={handleBlur} />
                   <Form.Control.Feedback className={touched.instructors && errors.instructors && "d-block"} type="invalid">
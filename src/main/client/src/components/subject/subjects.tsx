@@ -1,9 +1,9 @@
 import { unwrapResult } from "@reduxjs/toolkit";
 import React, { useEffect, useState } from "react";
-import { Alert, Card, Container } from "react-bootstrap";
+import { Alert, Button, Card, Container } from "react-bootstrap";
 import { useSelector } from "react-redux";
 import { Link } from "react-router-dom";
-import { fetchSubjects, selectAllSubjects, selectSubjectsStatus } from "../../redux/slices/subjectsSlice";
+import { fetchSubjects, selectAllSubjects, selectSubjectsNext, selectSubjectsStatus } from "../../redux/slices/subjectsSlice";
 import { useAppDispatch } from "../../redux/store";
 import { Loader } from "../loader/loader";
 import styles from "./subjects.module.scss";
@@ -12,7 +12,9 @@ export const Subjects = (): JSX.Element => {
   const dispatch = useAppDispatch();
   const subjectsStatus = useSelector(selectSubjectsStatus);
   const subjects = useSelector(selectAllSubjects);
+  const next = useSelector(selectSubjectsNext);
   const [errorMessage, setErrorMessage] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   useEffect(() => {
     dispatch(fetchSubjects())
@@ -23,7 +25,22 @@ export const Subjects = (): JSX.Element => {
       });
   }, [dispatch]);
 
-  if (subjectsStatus !== "finished") {
+  const handleLoadMore = (): void => {
+    if (next === null) {
+      return;
+    }
+
+    setLoadingMore(true);
+    dispatch(fetchSubjects(next))
+      .then(unwrapResult)
+      .catch((e: Error) => {
+        setErrorMessage("Failed to retrieve subjects");
+        console.error(e);
+      })
+      .finally(() => setLoadingMore(false));
+  };
+
+  if (subjectsStatus !== "finished" && !loadingMore) {
     return <Loader />;
   }
 
@@ -55,6 +72,12 @@ export const Subjects = (): JSX.Element => {
           );
         })
       }
+      {
+        next !== null &&
+          <Button variant="link" onClick={handleLoadMore} disabled={loadingMore}>
+            Load more subjects
+          </Button>
+      }
     </Container>
   );
 };
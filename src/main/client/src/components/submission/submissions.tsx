@@ -5,7 +5,7 @@ import { Alert, Button, Form, Table } from "react-bootstrap";
 import { useSelector } from "react-redux";
 import * as yup from "yup";
 import { ExamState, selectExamById } from "../../redux/slices/examsSlice";
-import { createExamSubmission, ExamSubmissionState, fetchExamSubmissions, selectExamSubmissionsForExam, updateExamSubmission } from "../../redux/slices/examSubmissionsSlice";
+import { createExamSubmission, ExamSubmissionState, fetchExamSubmissions, selectExamSubmissionsForExam, selectExamSubmissionsNext, updateExamSubmission } from "../../redux/slices/examSubmissionsSlice";
 import { fetchQuestions, selectQuestionsForExam } from "../../redux/slices/questionsSlice";
 import { selectSubjectById, SubjectState } from "../../redux/slices/subjectsSlice";
 import { fetchStudentsForSubject, selectMe, selectUsersByIds, selectUsersStatus } from "../../redux/slices/usersSlice";
@@ -39,6 +39,8 @@ export const Submissions = (props: SubmissionsProps): JSX.Element => {
     state => selectExamById(state, props.examId),
   );
   const examSubmissions = useSelector(selectExamSubmissionsForExam(exam?.id));
+  const next = useSelector(selectExamSubmissionsNext(props.examId));
+  const [loadingMore, setLoadingMore] = useState(false);
   const [errorMessage, setErrorMessage] = useState<string | null>(null);
   const questions = useSelector(selectQuestionsForExam(props.examId));
   const subject = useSelector<RootState, SubjectState | undefined>(
@@ -68,7 +70,7 @@ export const Submissions = (props: SubmissionsProps): JSX.Element => {
   });
 
   useEffect(() => {
-    dispatch(fetchExamSubmissions(props.examId))
+    dispatch(fetchExamSubmissions({ examId: props.examId }))
       .then(unwrapResult)
       .then(() => {
         setExamSubmissionsLoading(false);
@@ -79,6 +81,21 @@ export const Submissions = (props: SubmissionsProps): JSX.Element => {
       });
   }, [dispatch, props.examId]);
 
+  const handleLoadMore = (): void => {
+    if (next === null) {
+      return;
+    }
+
+    setLoadingMore(true);
+    dispatch(fetchExamSubmissions({ examId: props.examId, next }))
+      .then(unwrapResult)
+      .catch((e: Error) => {
+        setErrorMessage("Failed to fetch submissions");
+        console.error(e);
+      })
+      .finally(() => setLoadingMore(false));
+  };
+
   useEffect(() => {
     if (me?.type === "INSTRUCTOR" && subjectId !== undefined) {
       dispatch(fetchStudentsForSubject(subjectId))
@@ -229,8 +246,16 @@ export const Submissions = (props: SubmissionsProps): JSX.Element => {
               </tbody>
             </Table>
             {
+              next !== null &&
+                <Button variant="link" onClick={handleLoadMore} disabled={loadingMore}>
+                  Load more submissions
+                </Button>
+            }
+            {
+              // Marks can only be saved once every submission is loaded,
+              // otherwise existing submissions would be created again.
               me?.type !== "STUDENT" &&
-                <Button type="submit" disabled={isSubmitting}>
+                <Button type="submit" disabled={isSubmitting || next !== null}>
                   Submit Marks
                 </Button>
             }
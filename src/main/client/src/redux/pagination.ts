@@ -0,0 +1,22 @@
+export interface Page<T> {
+  items: T[],
+  next: string | null,
+}
+
+const nextLink = (res: Response): string | null => {
+  const match = /<([^>]*)>;\s*rel="next"/.exec(res.headers.get("link") ?? "");
+  return match?.[1] ?? null;
+};
+
+export const fetchPage = async <T>(url: string, init?: RequestInit): Promise<Page<T>> => {
+  const res = await fetch(url, init);
+
+  if (!res.ok) {
+    throw new Error(res.status.toString());
+  }
+
+  return {
+    items: await res.json() as T[],
+    next: nextLink(res),
+  };
+};
@@ -0,0 +1,30 @@
+import { createAsyncThunk } from "@reduxjs/toolkit";
+import { ExamState } from "./slices/examsSlice";
+import { OptionState } from "./slices/optionsSlice";
+import { QuestionState } from "./slices/questionsSlice";
+
+export interface PaperQuestion extends Omit<QuestionState, "optionIds"> {
+  // `correct` is left out of the options when a student fetches the paper.
+  options?: OptionState[],
+}
+
+export interface Paper extends Omit<ExamState, "questionIds"> {
+  questions: PaperQuestion[],
+}
+
+export const fetchExamPaper = createAsyncThunk(
+  "exams/fetchExamPaper",
+  async (slug: string) => {
+    const res = await fetch(`/api/exams/${slug}/paper`, {
+      headers: {
+        "content-type": "application/json",
+      },
+    });
+
+    if (!res.ok) {
+      throw new Error(res.status.toString());
+    }
+
+    return res.json() as Promise<Paper>;
+  },
+);
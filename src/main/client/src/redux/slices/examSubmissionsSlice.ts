@@ -2,6 +2,7 @@ import { createAsyncThunk, createEntityAdapter, createSlice } from "@reduxjs/too
 import { State, Status } from "../state";
 import { RootState } from "../store";
 import { QuestionSubmission } from "./questionSubmissionsSlice";
+import { fetchPage } from "../pagination";
 
 export interface ExamSubmission {
   examId: string,
@@ -16,22 +17,24 @@ export interface ExamSubmissionState extends ExamSubmission {
   },
 }
 
+interface ExamSubmissionsState extends State {
+  next: Record<string, string | null>,
+}
+
 const examSubmissionsAdapter = createEntityAdapter<ExamSubmissionState>();
 
 const initialState = examSubmissionsAdapter.getInitialState({
   status: "idle",
-} as State);
+  next: {},
+} as ExamSubmissionsState);
 
 export const fetchExamSubmissions = createAsyncThunk(
   "exams/fetchSubmissions",
-  async (examId: string) => {
-    const res = await fetch(`/api/exams/${examId}/submissions`);
-
-    if (!res.ok) {
-      throw new Error(res.status.toString());
-    }
-
-    return res.json() as Promise<ExamSubmissionState[]>;
+  async ({ examId, next }: { examId: string, next?: string }) => {
+    return {
+      examId,
+      ...await fetchPage<ExamSubmissionState>(next ?? `/api/exams/${examId}/submissions`),
+    };
   },
 );
 
@@ -101,7 +104,8 @@ export const examSubmissionsSlice = createSlice({
   extraReducers: builder => {
     builder.addCase(fetchExamSubmissions.fulfilled, (state, action) => {
       state.status = "finished";
-      examSubmissionsAdapter.upsertMany(state, action.payload);
+      state.next = { ...state.next, [action.payload.examId]: action.payload.next };
+      examSubmissionsAdapter.upsertMany(state, action.payload.items);
     });
     builder.addCase(createExamSubmission.fulfilled, (state, action) => {
       examSubmissionsAdapter.addOne(state, action.payload);
@@ -114,6 +118,10 @@ export const examSubmissionsSlice = createSlice({
 
 export const selectQuestionsStatus = (state: RootState): Status => state.options.status;
 
+export const selectExamSubmissionsNext = (examId: string) => {
+  return (state: RootState): string | null => state.examSubmissions.next?.[examId] ?? null;
+};
+
 export const {
   selectAll: selectAllExamSubmissions,
   selectById: selectExamSubmissionById,
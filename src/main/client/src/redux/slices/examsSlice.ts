@@ -1,5 +1,6 @@
 import { createAsyncThunk, createEntityAdapter, createSlice } from "@reduxjs/toolkit";
 import { State, Status } from "../state";
+import { fetchExamPaper } from "../paper";
 import { RootState } from "../store";
 import { addQuestion, fetchQuestions } from "./questionsSlice";
 
@@ -161,6 +162,14 @@ export const examsSlice = createSlice({
         }
       }
     });
+    builder.addCase(fetchExamPaper.fulfilled, (state, action) => {
+      const { questions, ...exam } = action.payload;
+      examsAdapter.upsertOne(state, {
+        ...exam,
+        questionIds: questions.map(q => q.id),
+      });
+      state.slugs[exam.slug] = exam.id;
+    });
     builder.addCase(addQuestion.fulfilled, (state, action) => {
       const exam = state.entities[action.payload.examId];
 
@@ -1,5 +1,6 @@
 import { createAsyncThunk, createEntityAdapter, createSlice } from "@reduxjs/toolkit";
 import { State, Status } from "../state";
+import { fetchExamPaper } from "../paper";
 import { RootState } from "../store";
 
 export interface Option {
@@ -119,6 +120,11 @@ export const optionsSlice = createSlice({
       state.status = "error";
       state.error = action.error.message;
     });
+    builder.addCase(fetchExamPaper.fulfilled, (state, action) => {
+      action.payload.questions.forEach(question => {
+        optionsAdapter.upsertMany(state, question.options ?? []);
+      });
+    });
     builder.addCase(addOption.fulfilled, (state, action) => {
       optionsAdapter.addOne(state, action.payload);
     });
@@ -1,5 +1,6 @@
 import { createAsyncThunk, createEntityAdapter, createSlice } from "@reduxjs/toolkit";
 import { State, Status } from "../state";
+import { fetchExamPaper } from "../paper";
 import { RootState } from "../store";
 import { addOption, fetchOptions } from "./optionsSlice";
 
@@ -136,6 +137,22 @@ export const questionsSlice = createSlice({
       state.status = "error";
       state.error = action.error.message;
     });
+    builder.addCase(fetchExamPaper.pending, state => {
+      state.status = "loading";
+    });
+    builder.addCase(fetchExamPaper.fulfilled, (state, action) => {
+      state.status = "finished";
+      questionsAdapter.upsertMany(state, action.payload.questions.map(
+        ({ options, ...question }) => ({
+          ...question,
+          optionIds: options?.map(o => o.id) ?? [],
+        }),
+      ));
+    });
+    builder.addCase(fetchExamPaper.rejected, (state, action) => {
+      state.status = "error";
+      state.error = action.error.message;
+    });
     builder.addCase(addQuestion.fulfilled, (state, action) => {
       questionsAdapter.addOne(state, action.payload);
     });
@@ -5,6 +5,7 @@ import { State, Status } from "../state";
 import { RootState } from "../store";
 import { addExam, fetchExams } from "./examsSlice";
 import { fetchInstructorsForSubject, fetchStudentsForSubject } from "./usersSlice";
+import { fetchPage } from "../pagination";
 
 export interface Subject {
   name: string,
@@ -24,6 +25,7 @@ export interface SubjectState extends Subject {
 
 interface SubjectsState extends State {
   slugs: Record<string, string>,
+  next: string | null,
 }
 
 const subjectsAdapter = createEntityAdapter<SubjectState>();
@@ -31,20 +33,15 @@ const subjectsAdapter = createEntityAdapter<SubjectState>();
 const initialState = subjectsAdapter.getInitialState({
   status: "idle",
   slugs: {},
+  next: null,
 } as SubjectsState);
 
-export const fetchSubjects = createAsyncThunk("subjects/fetchSubjects", async () => {
-  const res = await fetch("/api/subjects", {
+export const fetchSubjects = createAsyncThunk("subjects/fetchSubjects", async (next?: string) => {
+  return fetchPage<SubjectState>(next ?? "/api/subjects", {
     headers: {
       "content-type": "application/json",
     },
   });
-
-  if (!res.ok) {
-    throw new Error(res.status.toString());
-  }
-
-  return res.json() as Promise<SubjectState[]>;
 });
 
 export const fetchSubject = createAsyncThunk("subjects/fetchSubject", async (slug: string) => {
@@ -138,8 +135,9 @@ export const subjectsSlice = createSlice({
     });
     builder.addCase(fetchSubjects.fulfilled, (state, action) => {
       state.status = "finished";
-      subjectsAdapter.upsertMany(state, action.payload);
-      action.payload.forEach(subject => {
+      state.next = action.payload.next;
+      subjectsAdapter.upsertMany(state, action.payload.items);
+      action.payload.items.forEach(subject => {
         state.slugs[subject.slug] = subject.id;
       });
     });
@@ -194,6 +192,7 @@ export const subjectsSlice = createSlice({
 });
 
 export const selectSubjectsStatus = (state: RootState): Status => state.subjects.status;
+export const selectSubjectsNext = (state: RootState): string | null => state.subjects.next ?? null;
 export const {
   selectAll: selectAllSubjects,
   selectById: selectSubjectById,
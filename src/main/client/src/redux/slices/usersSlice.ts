@@ -1,6 +1,7 @@
 import { createAsyncThunk, createEntityAdapter, createSlice } from "@reduxjs/toolkit";
 import { State, Status } from "../state";
 import { RootState } from "../store";
+import { fetchPage } from "../pagination";
 
 export type UserType = "STUDENT" | "INSTRUCTOR" | "ADMINISTRATOR";
 
@@ -23,26 +24,22 @@ export interface UserState extends User {
 
 interface UsersState extends State {
   me?: string,
+  next: string | null,
 }
 
 const usersAdapter = createEntityAdapter<UserState>();
 
 const initialState = usersAdapter.getInitialState({
   status: "idle",
+  next: null,
 } as UsersState);
 
-export const fetchUsers = createAsyncThunk("users/fetchUsers", async () => {
-  const res = await fetch("/api/users", {
+export const fetchUsers = createAsyncThunk("users/fetchUsers", async (next?: string) => {
+  return fetchPage<UserState>(next ?? "/api/users", {
     headers: {
       "content-type": "application/json",
     },
   });
-
-  if (!res.ok) {
-    throw new Error(res.status.toString());
-  }
-
-  return res.json() as Promise<UserState[]>;
 });
 
 export const fetchInstructorsForSubject = createAsyncThunk(
@@ -140,7 +137,8 @@ export const usersSlice = createSlice({
     });
     builder.addCase(fetchUsers.fulfilled, (state, action) => {
       state.status = "finished";
-      usersAdapter.upsertMany(state, action.payload);
+      state.next = action.payload.next;
+      usersAdapter.upsertMany(state, action.payload.items);
     });
     builder.addCase(fetchUsers.rejected, (state, action) => {
       state.status = "error";
@@ -166,6 +164,7 @@ export const usersSlice = createSlice({
 });
 
 export const selectUsersStatus = (state: RootState): Status => state.users.status;
+export const selectUsersNext = (state: RootState): string | null => state.users.next ?? null;
 export const {
   selectAll: selectAllUsers,
   selectById: selectUserById,
@@ -0,0 +1,35 @@
+package com.ekzameno.ekzameno;
+
+import javax.ws.rs.ext.Provider;
+
+import com.ekzameno.ekzameno.mappers.EntityCacheListener;
+import com.ekzameno.ekzameno.services.ExamWarmer;
+import com.ekzameno.ekzameno.shared.ConnectionPool;
+import com.ekzameno.ekzameno.shared.PasswordHasher;
+
+import org.glassfish.jersey.server.spi.Container;
+import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
+
+/**
+ * Starts and stops application wide resources with the Jersey container.
+ */
+@Provider
+public class LifecycleListener implements ContainerLifecycleListener {
+    @Override
+    public void onStartup(Container container) {
+        PasswordHasher.getInstance().calibrate();
+        EntityCacheListener.getInstance().start();
+        ExamWarmer.getInstance().start();
+    }
+
+    @Override
+    public void onReload(Container container) { }
+
+    @Override
+    public void onShutdown(Container container) {
+        ExamWarmer.getInstance().shutdown();
+        EntityCacheListener.getInstance().shutdown();
+        PasswordHasher.getInstance().shutdown();
+        ConnectionPool.getInstance().shutdown();
+    }
+}
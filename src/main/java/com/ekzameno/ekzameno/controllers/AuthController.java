@@ -1,11 +1,13 @@
 package com.ekzameno.ekzameno.controllers;
 
-import java.security.Key;
+import java.util.concurrent.CompletionException;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.NewCookie;
 import javax.ws.rs.core.Response;
@@ -14,58 +16,40 @@ import com.ekzameno.ekzameno.dtos.SignInUserDTO;
 import com.ekzameno.ekzameno.models.User;
 import com.ekzameno.ekzameno.services.AuthService;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-
 /**
  * Controller to handle authentication.
  */
 @Path("/auth")
 public class AuthController {
     private final AuthService authService = new AuthService();
-    private final Key key = Keys.hmacShaKeyFor(
-        Decoders.BASE64.decode(
-            System.getenv(
-               "JWT_SECRET"
-            )
-        )
-    );
 
     /**
-     * Sign a user in to Ekzameno.
+     * Sign a user in to Ekzameno. The password is verified off the request
+     * thread, and the response is resumed once it has been.
      *
-     * @param dto DTO for user sign in
-     * @return response with jwt cookie set
+     * @param dto           DTO for user sign in
+     * @param asyncResponse response with jwt cookie set
      */
     @Path("/signin")
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response signIn(SignInUserDTO dto) {
-        User user = authService.authenticateUser(dto.email, dto.password);
-
-        if (user != null) {
-            String jwt = Jwts
-                .builder()
-                .setSubject(user.getId().toString())
-                .signWith(key)
-                .compact();
-
-            NewCookie cookie = new NewCookie(
-                "jwt",
-                jwt,
-                "/",
-                null,
-                null,
-                -1,
-                false,
-                true
-            );
-            return Response.ok().cookie(cookie).entity(user).build();
-        } else {
-            return Response.status(Response.Status.UNAUTHORIZED).build();
-        }
+    public void signIn(
+        SignInUserDTO dto,
+        @Suspended AsyncResponse asyncResponse
+    ) {
+        authService
+            .authenticateUser(dto.email, dto.password)
+            .thenApply(this::buildSignInResponse)
+            .whenComplete((response, e) -> {
+                if (e == null) {
+                    asyncResponse.resume(response);
+                } else {
+                    asyncResponse.resume(
+                        e instanceof CompletionException ? e.getCause() : e
+                    );
+                }
+            });
     }
 
     /**
@@ -84,4 +68,24 @@ public class AuthController {
             )
             .build();
     }
+
+    private Response buildSignInResponse(User user) {
+        if (user != null) {
+            String jwt = authService.issueToken(user);
+
+            NewCookie cookie = new NewCookie(
+                "jwt",
+                jwt,
+                "/",
+                null,
+                null,
+                -1,
+                false,
+                true
+            );
+            return Response.ok().cookie(cookie).entity(user).build();
+        } else {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+    }
 }
@@ -15,11 +15,13 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
 
 import com.ekzameno.ekzameno.dtos.CreateExamDTO;
 import com.ekzameno.ekzameno.dtos.CreateExamSubmissionDTO;
@@ -31,6 +33,7 @@ import com.ekzameno.ekzameno.models.ExamSubmission;
 import com.ekzameno.ekzameno.models.Question;
 import com.ekzameno.ekzameno.services.ExamService;
 import com.ekzameno.ekzameno.services.QuestionService;
+import com.ekzameno.ekzameno.shared.Page;
 
 /**
  * Controller for Exams.
@@ -55,6 +58,30 @@ public class ExamController {
         return examService.getExam(slug);
     }
 
+    /**
+     * Fetches everything needed to sit an exam in one response: the exam,
+     * its questions and their options. Students are not told which options
+     * are correct.
+     *
+     * @param slug            exam's slug
+     * @param securityContext Security context for the request
+     * @param headers         Request headers
+     * @return paper for the exam
+     */
+    @Path("/{slug}/paper")
+    @GET
+    @RolesAllowed({ "instructor", "student" })
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getExamPaper(
+        @PathParam("slug") String slug,
+        @Context SecurityContext securityContext,
+        @Context HttpHeaders headers
+    ) {
+        return examService
+            .getExamPaper(slug, !securityContext.isUserInRole("student"))
+            .toResponse(headers);
+    }
+
     /**
      * Update an exam.
      *
@@ -129,15 +156,21 @@ public class ExamController {
     /**
      * Retrieve questions for a given exam.
      *
-     * @param examId ID of the exam to retrieve questions for
+     * @param examId  ID of the exam to retrieve questions for
+     * @param headers Request headers
      * @return questions for the specified exam
      */
     @Path("/{examId}/questions")
     @GET
     @RolesAllowed({ "instructor", "student" })
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Question> getQuestions(@PathParam("examId") String examId) {
-        return questionService.getQuestionsForExam(UUID.fromString(examId));
+    public Response getQuestions(
+        @PathParam("examId") String examId,
+        @Context HttpHeaders headers
+    ) {
+        return questionService
+            .getQuestionsForExam(UUID.fromString(examId))
+            .toResponse(headers);
     }
 
     /**
@@ -210,19 +243,26 @@ public class ExamController {
     }
 
     /**
-     * Retrieve the user's submission for a given exam.
+     * Retrieve the submissions for a given exam. Students only receive their
+     * own submission; instructors receive a page of all submissions.
      *
      * @param examId          ID of the exam to retrieve the submission for
+     * @param after           cursor from the previous page
+     * @param limit           maximum number of submissions to return
      * @param securityContext Security context for the request
-     * @return the user's submission for the exam
+     * @param uriInfo         URI information for the request
+     * @return the submissions for the exam
      */
     @Path("/{examId}/submissions")
     @GET
     @RolesAllowed({ "instructor", "student" })
     @Produces(MediaType.APPLICATION_JSON)
-    public List<ExamSubmission> getSubmissions(
+    public Response getSubmissions(
         @PathParam("examId") String examId,
-        @Context SecurityContext securityContext
+        @QueryParam("after") String after,
+        @QueryParam("limit") Integer limit,
+        @Context SecurityContext securityContext,
+        @Context UriInfo uriInfo
     ) {
         Principal principal = securityContext.getUserPrincipal();
 
@@ -238,9 +278,15 @@ public class ExamController {
                 examSubmissions.add(submission);
             }
 
-            return examSubmissions;
+            return Response.ok(examSubmissions).build();
         } else {
-            return examService.getSubmissions(UUID.fromString(examId));
+            return examService
+                .getSubmissions(
+                    UUID.fromString(examId),
+                    Page.parseCursor(after),
+                    Page.parseLimit(limit)
+                )
+                .toResponse(uriInfo);
         }
     }
 }
@@ -0,0 +1,47 @@
+package com.ekzameno.ekzameno.controllers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import com.ekzameno.ekzameno.filters.Protected;
+import com.ekzameno.ekzameno.mappers.EntityCache;
+import com.ekzameno.ekzameno.services.ExamWarmer;
+import com.ekzameno.ekzameno.shared.ConnectionPool;
+import com.ekzameno.ekzameno.shared.PasswordHasher;
+import com.ekzameno.ekzameno.shared.PrincipalCache;
+import com.ekzameno.ekzameno.shared.ResponseCache;
+import com.ekzameno.ekzameno.shared.SingleFlight;
+
+/**
+ * Controller for runtime metrics.
+ */
+@Path("/metrics")
+@Protected
+public class MetricsController {
+    /**
+     * Retrieve runtime metrics used to size the application.
+     *
+     * @return metrics keyed by component
+     */
+    @GET
+    @RolesAllowed({ "administrator" })
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("connectionPool", ConnectionPool.getInstance().getStats());
+        metrics.put("entityCache", EntityCache.getStats());
+        metrics.put("entityListCache", EntityCache.getListStats());
+        metrics.put("responseCache", ResponseCache.getInstance().getStats());
+        metrics.put("principalCache", PrincipalCache.getInstance().getStats());
+        metrics.put("passwordHasher", PasswordHasher.getInstance().getStats());
+        metrics.put("singleFlight", SingleFlight.getInstance().getStats());
+        metrics.put("examWarmer", ExamWarmer.getInstance().getStats());
+        return metrics;
+    }
+}
@@ -1,6 +1,5 @@
 package com.ekzameno.ekzameno.controllers;
 
-import java.util.List;
 import java.util.UUID;
 
 import javax.annotation.security.RolesAllowed;
@@ -87,14 +86,20 @@ public class QuestionController {
      * Fetch options for a given question.
      *
      * @param questionId ID of the question to fetch options for
+     * @param headers    Request headers
      * @return options associated with the given question
      */
     @Path("/{questionId}/options")
     @GET
     @RolesAllowed({ "instructor", "student" })
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Option> getOptions(@PathParam("questionId") String questionId) {
-        return optionService.getOptionsForQuestion(UUID.fromString(questionId));
+    public Response getOptions(
+        @PathParam("questionId") String questionId,
+        @Context HttpHeaders headers
+    ) {
+        return optionService
+            .getOptionsForQuestion(UUID.fromString(questionId))
+            .toResponse(headers);
     }
 
     /**
@@ -12,14 +12,18 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
 
+import com.ekzameno.ekzameno.dtos.AddUsersToSubjectResultDTO;
 import com.ekzameno.ekzameno.dtos.CreateExamDTO;
 import com.ekzameno.ekzameno.dtos.CreateSubjectDTO;
+import com.ekzameno.ekzameno.dtos.SyncStudentsResultDTO;
 import com.ekzameno.ekzameno.filters.Protected;
 import com.ekzameno.ekzameno.models.Exam;
 import com.ekzameno.ekzameno.models.Instructor;
@@ -28,6 +32,7 @@ import com.ekzameno.ekzameno.models.Subject;
 import com.ekzameno.ekzameno.services.ExamService;
 import com.ekzameno.ekzameno.services.SubjectService;
 import com.ekzameno.ekzameno.services.UserService;
+import com.ekzameno.ekzameno.shared.Page;
 
 /**
  * Controller for subjects.
@@ -40,33 +45,51 @@ public class SubjectController {
     private final UserService userService = new UserService();
 
     /**
-     * Handles the fetching of all subjects from the database.
+     * Handles the fetching of a page of subjects from the database.
      *
+     * @param after           cursor from the previous page
+     * @param limit           maximum number of subjects to return
      * @param securityContext provides access to user role.
-     * @return list of all subjects in the database.
+     * @param uriInfo         URI information for the request
+     * @return page of subjects, with a Link header to the next page
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
-    public List<Subject> getSubjects(@Context SecurityContext securityContext) {
+    public Response getSubjects(
+        @QueryParam("after") String after,
+        @QueryParam("limit") Integer limit,
+        @Context SecurityContext securityContext,
+        @Context UriInfo uriInfo
+    ) {
+        UUID afterId = Page.parseCursor(after);
+        int pageSize = Page.parseLimit(limit);
+        Page<Subject> page;
+
         if (securityContext.isUserInRole("student")) {
-            return subjectService.getSubjectsForStudent(
+            page = subjectService.getSubjectsForStudent(
                 UUID.fromString(
                     securityContext
                     .getUserPrincipal()
                     .getName()
-                )
+                ),
+                afterId,
+                pageSize
             );
         } else if (securityContext.isUserInRole("instructor")) {
-            return subjectService.getSubjectsForInstructor(
+            page = subjectService.getSubjectsForInstructor(
                 UUID.fromString(
                     securityContext
                     .getUserPrincipal()
                     .getName()
-                )
+                ),
+                afterId,
+                pageSize
             );
         } else {
-            return subjectService.getSubjects();
+            page = subjectService.getSubjects(afterId, pageSize);
         }
+
+        return page.toResponse(uriInfo);
     }
 
     /**
@@ -237,6 +260,72 @@ public class SubjectController {
         return Response.status(Response.Status.CREATED).build();
     }
 
+    /**
+     * Adds given instructors to given subject.
+     *
+     * @param subjectId     ID of the subject to add the instructors to
+     * @param instructorIds IDs of the instructors to add to the subject
+     * @return which instructors were added, skipped or missing
+     */
+    @Path("/{subjectId}/instructors")
+    @POST
+    @RolesAllowed({ "instructor" })
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public AddUsersToSubjectResultDTO addInstructorsToSubject(
+        @PathParam("subjectId") String subjectId,
+        List<UUID> instructorIds
+    ) {
+        return subjectService.addInstructorsToSubject(
+            UUID.fromString(subjectId),
+            instructorIds
+        );
+    }
+
+    /**
+     * Adds given students to given subject.
+     *
+     * @param subjectId  ID of the subject to add the students to
+     * @param studentIds IDs of the students to add to the subject
+     * @return which students were added, skipped or missing
+     */
+    @Path("/{subjectId}/students")
+    @POST
+    @RolesAllowed({ "instructor" })
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public AddUsersToSubjectResultDTO addStudentsToSubject(
+        @PathParam("subjectId") String subjectId,
+        List<UUID> studentIds
+    ) {
+        return subjectService.addStudentsToSubject(
+            UUID.fromString(subjectId),
+            studentIds
+        );
+    }
+
+    /**
+     * Replaces the students of given subject with the given roster.
+     *
+     * @param subjectId  ID of the subject to sync the students of
+     * @param studentIds IDs of every student who should be in the subject
+     * @return how many students were added, removed or unchanged
+     */
+    @Path("/{subjectId}/students")
+    @PUT
+    @RolesAllowed({ "instructor" })
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public SyncStudentsResultDTO syncStudentsForSubject(
+        @PathParam("subjectId") String subjectId,
+        List<UUID> studentIds
+    ) {
+        return subjectService.syncStudentsForSubject(
+            UUID.fromString(subjectId),
+            studentIds
+        );
+    }
+
     /**
      * Delete given instructor from given subject.
      *
@@ -1,20 +1,35 @@
 package com.ekzameno.ekzameno.controllers;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.CompletionException;
 
 import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import com.ekzameno.ekzameno.dtos.CreateUserDTO;
+import com.ekzameno.ekzameno.dtos.ImportUserErrorDTO;
+import com.ekzameno.ekzameno.dtos.ImportUsersResultDTO;
 import com.ekzameno.ekzameno.filters.Protected;
-import com.ekzameno.ekzameno.models.User;
 import com.ekzameno.ekzameno.services.UserService;
+import com.ekzameno.ekzameno.shared.CsvReader;
+import com.ekzameno.ekzameno.shared.ObjectMapperResolver;
+import com.ekzameno.ekzameno.shared.Page;
+import com.fasterxml.jackson.databind.MappingIterator;
 
 /**
  * Controller for Users.
@@ -25,44 +40,146 @@ public class UserController {
     private final UserService userService = new UserService();
 
     /**
-     * Retrieve all users.
+     * Retrieve a page of users.
      *
-     * @return all users
+     * @param after   cursor from the previous page
+     * @param limit   maximum number of users to return
+     * @param uriInfo URI information for the request
+     * @return page of users, with a Link header to the next page
      */
     @GET
     @RolesAllowed({ "administrator", "instructor" })
     @Produces(MediaType.APPLICATION_JSON)
-    public List<User> getUsers() {
-        return userService.getUsers();
+    public Response getUsers(
+        @QueryParam("after") String after,
+        @QueryParam("limit") Integer limit,
+        @Context UriInfo uriInfo
+    ) {
+        return userService
+            .getUsers(Page.parseCursor(after), Page.parseLimit(limit))
+            .toResponse(uriInfo);
     }
 
     /**
-     * Create a user using the information provided in the DTO.
+     * Create a user using the information provided in the DTO. The password
+     * is hashed off the request thread, and the response is resumed once the
+     * user has been created.
      *
-     * @param dto create user DTO
-     * @return response to the client.
+     * @param dto           create user DTO
+     * @param asyncResponse response to the client.
      */
     @POST
     @RolesAllowed({ "administrator" })
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response createUser(CreateUserDTO dto) {
-        User user = userService.registerUser(
-            dto.name,
-            dto.email,
-            dto.password,
-            dto.type
-        );
+    public void createUser(
+        CreateUserDTO dto,
+        @Suspended AsyncResponse asyncResponse
+    ) {
+        userService
+            .registerUserAsync(dto.name, dto.email, dto.password, dto.type)
+            .whenComplete((user, e) -> {
+                if (e == null) {
+                    asyncResponse.resume(
+                        Response
+                            .status(Response.Status.CREATED)
+                            .entity(user)
+                            .build()
+                    );
+                } else {
+                    asyncResponse.resume(
+                        e instanceof CompletionException ? e.getCause() : e
+                    );
+                }
+            });
+    }
 
-        if (user != null) {
-            return Response
-                .status(Response.Status.CREATED)
-                .entity(user)
-                .build();
-        } else {
-            return Response
-            .status(Response.Status.INTERNAL_SERVER_ERROR)
-            .build();
+    /**
+     * Import users from a JSON array of create user DTOs.
+     *
+     * @param body request body
+     * @return how many users were created, and why any were not
+     */
+    @Path("/import")
+    @POST
+    @RolesAllowed({ "administrator" })
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public ImportUsersResultDTO importUsersFromJson(InputStream body) {
+        try {
+            MappingIterator<CreateUserDTO> users = ObjectMapperResolver
+                .getObjectMapper()
+                .readerFor(CreateUserDTO.class)
+                .readValues(body);
+            return userService.importUsers(readUsers(users));
+        } catch (IOException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    /**
+     * Import users from CSV with a header naming the name, email, password
+     * and type columns.
+     *
+     * @param body request body
+     * @return how many users were created, and why any were not
+     */
+    @Path("/import")
+    @POST
+    @RolesAllowed({ "administrator" })
+    @Consumes("text/csv")
+    @Produces(MediaType.APPLICATION_JSON)
+    public ImportUsersResultDTO importUsersFromCsv(InputStream body) {
+        try {
+            return userService.importUsers(
+                new CsvReader(body)
+                    .records()
+                    .map(CreateUserDTO::fromRecord)
+                    .iterator()
+            );
+        } catch (IOException | UncheckedIOException e) {
+            throw new BadRequestException();
         }
     }
+
+    // MappingIterator's Iterator methods wrap errors in unchecked exceptions
+    // which would surface as 500, so users are read with its checked methods
+    // and any error is reported against the user being read.
+    private static Iterator<CreateUserDTO> readUsers(
+        MappingIterator<CreateUserDTO> users
+    ) {
+        return new Iterator<>() {
+            private int row = 0;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return users.hasNextValue();
+                } catch (IOException e) {
+                    throw invalidUser(row + 1);
+                }
+            }
+
+            @Override
+            public CreateUserDTO next() {
+                row++;
+
+                try {
+                    return users.nextValue();
+                } catch (IOException e) {
+                    throw invalidUser(row);
+                }
+            }
+        };
+    }
+
+    private static BadRequestException invalidUser(int row) {
+        return new BadRequestException(
+            Response
+                .status(Response.Status.BAD_REQUEST)
+                .entity(new ImportUserErrorDTO(row, null, "Invalid user"))
+                .type(MediaType.APPLICATION_JSON)
+                .build()
+        );
+    }
 }
@@ -0,0 +1,14 @@
+package com.ekzameno.ekzameno.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for the result of adding students or instructors to a subject.
+ */
+public class AddUsersToSubjectResultDTO {
+    public List<UUID> added = new ArrayList<>();
+    public List<UUID> skipped = new ArrayList<>();
+    public List<UUID> missing = new ArrayList<>();
+}
@@ -1,5 +1,7 @@
 package com.ekzameno.ekzameno.dtos;
 
+import java.util.Map;
+
 /**
  * DTO for creating a user.
  */
@@ -8,4 +10,19 @@ public class CreateUserDTO {
     public String email;
     public String password;
     public String type;
+
+    /**
+     * Create a CreateUserDTO from a CSV record.
+     *
+     * @param record record keyed by column name
+     * @return the DTO
+     */
+    public static CreateUserDTO fromRecord(Map<String, String> record) {
+        CreateUserDTO dto = new CreateUserDTO();
+        dto.name = record.get("name");
+        dto.email = record.get("email");
+        dto.password = record.get("password");
+        dto.type = record.get("type");
+        return dto;
+    }
 }
@@ -0,0 +1,27 @@
+package com.ekzameno.ekzameno.dtos;
+
+import java.util.List;
+
+import com.ekzameno.ekzameno.models.Exam;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * DTO for everything needed to sit an exam: the exam, its questions and their
+ * options.
+ */
+public class ExamPaperDTO {
+    @JsonUnwrapped
+    public Exam exam;
+    public List<QuestionPaperDTO> questions;
+
+    /**
+     * Create an ExamPaperDTO.
+     *
+     * @param exam      exam
+     * @param questions questions in the exam, with their options
+     */
+    public ExamPaperDTO(Exam exam, List<QuestionPaperDTO> questions) {
+        this.exam = exam;
+        this.questions = questions;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ekzameno.ekzameno.dtos;
+
+/**
+ * DTO for a user which could not be imported.
+ */
+public class ImportUserErrorDTO {
+    public int row;
+    public String email;
+    public String error;
+
+    /**
+     * Create an ImportUserErrorDTO.
+     *
+     * @param row   position of the user in the import, starting from 1
+     * @param email email address of the user
+     * @param error why the user could not be imported
+     */
+    public ImportUserErrorDTO(int row, String email, String error) {
+        this.row = row;
+        this.email = email;
+        this.error = error;
+    }
+}
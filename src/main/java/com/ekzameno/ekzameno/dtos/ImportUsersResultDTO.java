@@ -0,0 +1,12 @@
+package com.ekzameno.ekzameno.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for the result of importing users.
+ */
+public class ImportUsersResultDTO {
+    public int created = 0;
+    public List<ImportUserErrorDTO> errors = new ArrayList<>();
+}
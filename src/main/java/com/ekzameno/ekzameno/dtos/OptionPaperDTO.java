@@ -0,0 +1,33 @@
+package com.ekzameno.ekzameno.dtos;
+
+import java.util.UUID;
+
+import com.ekzameno.ekzameno.models.Meta;
+import com.ekzameno.ekzameno.models.Option;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * DTO for an option in an exam paper.
+ */
+public class OptionPaperDTO {
+    public UUID id;
+    public String answer;
+    public UUID questionId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Boolean correct;
+    public Meta meta;
+
+    /**
+     * Create an OptionPaperDTO.
+     *
+     * @param option      option
+     * @param withAnswers whether to include if the option is correct
+     */
+    public OptionPaperDTO(Option option, boolean withAnswers) {
+        this.id = option.getId();
+        this.answer = option.getAnswer();
+        this.questionId = option.getQuestionId();
+        this.correct = withAnswers ? option.isCorrect() : null;
+        this.meta = option.getMeta();
+    }
+}
@@ -0,0 +1,29 @@
+package com.ekzameno.ekzameno.dtos;
+
+import java.util.List;
+
+import com.ekzameno.ekzameno.models.Question;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * DTO for a question in an exam paper.
+ */
+public class QuestionPaperDTO {
+    @JsonUnwrapped
+    public Question question;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<OptionPaperDTO> options;
+
+    /**
+     * Create a QuestionPaperDTO.
+     *
+     * @param question question
+     * @param options  options for the question, or null if it is not a
+     *                 multiple choice question
+     */
+    public QuestionPaperDTO(Question question, List<OptionPaperDTO> options) {
+        this.question = question;
+        this.options = options;
+    }
+}
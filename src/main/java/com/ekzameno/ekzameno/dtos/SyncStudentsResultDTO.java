@@ -0,0 +1,15 @@
+package com.ekzameno.ekzameno.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for the result of syncing the students of a subject with a roster.
+ */
+public class SyncStudentsResultDTO {
+    public int added = 0;
+    public int removed = 0;
+    public int unchanged = 0;
+    public List<UUID> missing = new ArrayList<>();
+}
@@ -1,7 +1,6 @@
 package com.ekzameno.ekzameno.filters;
 
 import java.io.IOException;
-import java.security.Key;
 import java.security.Principal;
 import java.sql.SQLException;
 import java.util.UUID;
@@ -15,12 +14,11 @@ import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.ext.Provider;
 
 import com.ekzameno.ekzameno.mappers.UserMapper;
-import com.ekzameno.ekzameno.models.User;
+import com.ekzameno.ekzameno.services.AuthService;
+import com.ekzameno.ekzameno.shared.PrincipalCache;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 
 /**
  * Filter to determine whether requests are authenticated.
@@ -29,13 +27,7 @@ import io.jsonwebtoken.security.Keys;
 @Priority(0)
 @Protected
 public class AuthFilter implements ContainerRequestFilter {
-    private final Key key = Keys.hmacShaKeyFor(
-        Decoders.BASE64.decode(
-            System.getenv(
-                "JWT_SECRET"
-            )
-        )
-    );
+    private final AuthService authService = new AuthService();
 
     @Override
     public void filter(
@@ -45,30 +37,27 @@ public class AuthFilter implements ContainerRequestFilter {
         if (cookie != null) {
             String jwt = cookie.getValue();
             try {
-                String subject = Jwts
-                    .parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(jwt)
-                    .getBody()
-                    .getSubject();
-
-                User user = new UserMapper().findById(UUID.fromString(subject));
+                Claims claims = authService.parseToken(jwt);
+                UUID id = UUID.fromString(claims.getSubject());
+                String role =
+                    claims.get(AuthService.ROLE_CLAIM, String.class);
+                // Tokens issued before roles were added to them still need
+                // the user to be looked up.
+                String type = authService.isStateless() && role != null
+                    ? role
+                    : findType(id);
                 SecurityContext currentSecurityContext = requestContext
                     .getSecurityContext();
 
                 requestContext.setSecurityContext(new SecurityContext() {
                     @Override
                     public Principal getUserPrincipal() {
-                        return () -> user.getId().toString();
+                        return () -> id.toString();
                     }
 
                     @Override
                     public boolean isUserInRole(String role) {
-                        return user
-                            .getType()
-                            .toLowerCase()
-                            .equals(role.toLowerCase());
+                        return type.toLowerCase().equals(role.toLowerCase());
                     }
 
                     @Override
@@ -92,4 +81,17 @@ public class AuthFilter implements ContainerRequestFilter {
             );
         }
     }
+
+    private String findType(UUID id) throws SQLException {
+        PrincipalCache principalCache = PrincipalCache.getInstance();
+        String type = principalCache.get(id);
+
+        if (type == null) {
+            long generation = principalCache.getGeneration();
+            type = new UserMapper().findById(id).getType();
+            principalCache.put(id, type, generation);
+        }
+
+        return type;
+    }
 }
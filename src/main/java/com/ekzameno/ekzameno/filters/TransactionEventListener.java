@@ -0,0 +1,39 @@
+package com.ekzameno.ekzameno.filters;
+
+import javax.ws.rs.ext.Provider;
+
+import com.ekzameno.ekzameno.shared.Transaction;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+/**
+ * Releases the transaction opened by {@link TransactionFilter} once a request
+ * has finished, including when lazy loading happened while the response was
+ * being written or the request failed before the response filters ran.
+ */
+@Provider
+public class TransactionEventListener implements ApplicationEventListener {
+    @Override
+    public void onEvent(ApplicationEvent event) { }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return event -> {
+            if (event.getType() != RequestEvent.Type.FINISHED) {
+                return;
+            }
+
+            Transaction transaction = (Transaction) event
+                .getContainerRequest()
+                .getProperty(TransactionFilter.PROPERTY);
+
+            if (transaction != null) {
+                transaction.attach();
+                transaction.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.ekzameno.ekzameno.filters;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.Provider;
+
+import com.ekzameno.ekzameno.shared.Transaction;
+
+/**
+ * Filter to run each request in a single database transaction. The
+ * transaction is committed if the request succeeds and rolled back if it
+ * fails or a service marked it rollback only.
+ * Its connection is released by {@link TransactionEventListener} once the
+ * response has been written.
+ */
+@Provider
+@PreMatching
+public class TransactionFilter implements
+    ContainerRequestFilter, ContainerResponseFilter {
+    static final String PROPERTY = Transaction.class.getName();
+
+    @Override
+    public void filter(
+        ContainerRequestContext requestContext
+    ) throws IOException {
+        requestContext.setProperty(PROPERTY, Transaction.begin());
+    }
+
+    @Override
+    public void filter(
+        ContainerRequestContext requestContext,
+        ContainerResponseContext responseContext
+    ) throws IOException {
+        Transaction transaction =
+            (Transaction) requestContext.getProperty(PROPERTY);
+
+        if (transaction == null) {
+            return;
+        }
+
+        transaction.attach();
+
+        try {
+            if (
+                responseContext.getStatus() < 400 &&
+                    !transaction.isRollbackOnly()
+            ) {
+                transaction.commit();
+            } else {
+                transaction.rollback();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            responseContext.setStatusInfo(
+                Response.Status.INTERNAL_SERVER_ERROR
+            );
+            responseContext.setEntity(null);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.ekzameno.ekzameno.mappers;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import com.ekzameno.ekzameno.models.Question;
-import com.ekzameno.ekzameno.shared.DBConnection;
 
 /**
  * Abstract Data Mapper for Questions.
@@ -15,42 +17,67 @@ import com.ekzameno.ekzameno.shared.DBConnection;
 public abstract class AbstractQuestionMapper<T extends Question>
         extends Mapper<T> {
     private static final String tableName = "questions";
+    private final Map<String, Column<T>> columns = Map.of(
+        "question",
+        new Column<>(
+            "question",
+            (statement, i, question) -> statement.setString(
+                i,
+                question.getQuestion()
+            )
+        ),
+        "marks",
+        new Column<>(
+            "marks",
+            (statement, i, question) -> statement.setInt(i, question.getMarks())
+        ),
+        "examId",
+        new Column<>(
+            "exam_id",
+            (statement, i, question) -> statement.setObject(
+                i,
+                question.getExamId()
+            )
+        )
+    );
+    private static final List<String> selectColumns = List.of(
+        "question",
+        "marks",
+        "type",
+        "exam_id"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    protected static final int QUESTION = 3;
+    protected static final int MARKS = 4;
+    protected static final int TYPE = 5;
+    protected static final int EXAM_ID = 6;
 
     @Override
-    public void insert(T question) throws SQLException {
-        String query = "INSERT INTO " + tableName +
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
             " (id, question, marks, type, exam_id) VALUES (?,?,?,?,?)";
+    }
+
+    @Override
+    protected void bindInsert(
+        PreparedStatement statement,
+        T question
+    ) throws SQLException {
+        statement.setObject(1, question.getId());
+        statement.setString(2, question.getQuestion());
+        statement.setInt(3, question.getMarks());
+        statement.setString(4, getType());
+        statement.setObject(5, question.getExamId());
+    }
 
-        Connection connection = DBConnection.getCurrent().getConnection();
-
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, question.getId());
-            statement.setString(2, question.getQuestion());
-            statement.setInt(3, question.getMarks());
-            statement.setString(4, getType());
-            statement.setObject(5, question.getExamId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected Map<String, Column<T>> getColumns() {
+        return columns;
     }
 
     @Override
-    public void update(T question) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET question = ?, marks = ?, exam_id=? WHERE id = ?";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
-
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setString(1, question.getQuestion());
-            statement.setInt(2, question.getMarks());
-            statement.setObject(3, question.getExamId());
-            statement.setObject(4, question.getId());
-            statement.executeUpdate();
-        }
+    protected List<String> getSelectColumns() {
+        return selectColumns;
     }
 
     @Override
@@ -58,5 +85,17 @@ public abstract class AbstractQuestionMapper<T extends Question>
         return tableName;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public List<UUID> findCascadedIds(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findIdsReferencing("options", "question_id", ids);
+    }
+
     protected abstract String getType();
 }
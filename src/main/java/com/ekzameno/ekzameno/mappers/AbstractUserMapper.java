@@ -1,13 +1,13 @@
 package com.ekzameno.ekzameno.mappers;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.NotFoundException;
 
 import com.ekzameno.ekzameno.models.User;
-import com.ekzameno.ekzameno.shared.DBConnection;
 
 /**
  * Abstract Data Mapper for Users.
@@ -16,6 +16,37 @@ import com.ekzameno.ekzameno.shared.DBConnection;
  */
 public abstract class AbstractUserMapper<T extends User> extends Mapper<T> {
     private static final String tableName = "users";
+    private final Map<String, Column<T>> columns = Map.of(
+        "email",
+        new Column<>(
+            "email",
+            (statement, i, user) -> statement.setString(i, user.getEmail())
+        ),
+        "name",
+        new Column<>(
+            "name",
+            (statement, i, user) -> statement.setString(i, user.getName())
+        ),
+        "passwordHash",
+        new Column<>(
+            "password_hash",
+            (statement, i, user) -> statement.setString(
+                i,
+                user.getPasswordHash()
+            )
+        )
+    );
+    private static final List<String> selectColumns = List.of(
+        "email",
+        "name",
+        "password_hash",
+        "type"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    protected static final int EMAIL = 3;
+    protected static final int NAME = 4;
+    protected static final int PASSWORD_HASH = 5;
+    protected static final int TYPE = 6;
 
     /**
      * Find a user by their email address.
@@ -43,40 +74,31 @@ public abstract class AbstractUserMapper<T extends User> extends Mapper<T> {
     }
 
     @Override
-    public void insert(T user) throws SQLException {
-        String query = "INSERT INTO " + tableName +
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
             " (id, email, name, password_hash, type) VALUES (?,?,?,?,?)";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
-
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, user.getId());
-            statement.setString(2, user.getEmail());
-            statement.setString(3, user.getName());
-            statement.setString(4, user.getPasswordHash());
-            statement.setString(5, getType());
-            statement.executeUpdate();
-        }
     }
 
     @Override
-    public void update(T user) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET email = ?, name = ?, password_hash = ? WHERE id = ?";
+    protected void bindInsert(
+        PreparedStatement statement,
+        T user
+    ) throws SQLException {
+        statement.setObject(1, user.getId());
+        statement.setString(2, user.getEmail());
+        statement.setString(3, user.getName());
+        statement.setString(4, user.getPasswordHash());
+        statement.setString(5, getType());
+    }
 
-        Connection connection = DBConnection.getCurrent().getConnection();
+    @Override
+    protected Map<String, Column<T>> getColumns() {
+        return columns;
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setString(1, user.getEmail());
-            statement.setString(2, user.getName());
-            statement.setString(3, user.getPasswordHash());
-            statement.setObject(4, user.getId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
     }
 
     @Override
@@ -85,4 +107,9 @@ public abstract class AbstractUserMapper<T extends User> extends Mapper<T> {
     }
 
     protected abstract String getType();
+
+    @Override
+    public boolean publishesPrincipalChanges() {
+        return true;
+    }
 }
@@ -4,19 +4,49 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.ws.rs.NotFoundException;
 
 import com.ekzameno.ekzameno.models.Enrolment;
+import com.ekzameno.ekzameno.models.Student;
 import com.ekzameno.ekzameno.shared.DBConnection;
 import com.ekzameno.ekzameno.shared.IdentityMap;
 
 /**
  * Data Mapper for Enrolments.
  */
-public class EnrolmentMapper extends Mapper<Enrolment> {
+public class EnrolmentMapper
+        extends SubjectMembershipMapper<Enrolment> {
     private static final String tableName = "enrolments";
+    private static final Map<String, Column<Enrolment>> columns = Map.of(
+        "studentId",
+        new Column<>(
+            "user_id",
+            (statement, i, enrolment) -> statement.setObject(
+                i,
+                enrolment.getStudentId()
+            )
+        ),
+        "subjectId",
+        new Column<>(
+            "subject_id",
+            (statement, i, enrolment) -> statement.setObject(
+                i,
+                enrolment.getSubjectId()
+            )
+        )
+    );
+    private static final List<String> selectColumns = List.of(
+        "user_id",
+        "subject_id"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    private static final int USER_ID = 3;
+    private static final int SUBJECT_ID = 4;
 
     /**
      * Retrieve the Enrolment with the given relation IDs.
@@ -32,7 +62,7 @@ public class EnrolmentMapper extends Mapper<Enrolment> {
         UUID subjectId,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
             " WHERE user_id = ? AND subject_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
@@ -72,42 +102,71 @@ public class EnrolmentMapper extends Mapper<Enrolment> {
         return findByRelationIds(studentId, subjectId, false);
     }
 
-    @Override
-    public void insert(
-        Enrolment enrolment
+    /**
+     * Add students to a subject in a single statement. Users which do not
+     * exist or are not students are ignored, as are users which are already
+     * related to the subject.
+     *
+     * @param subjectId  ID of the subject
+     * @param studentIds IDs of the students
+     * @return whether each student found was added, by ID
+     * @throws SQLException if unable to add the students
+     */
+    public Map<UUID, Boolean> insertAllForSubject(
+        UUID subjectId,
+        Collection<UUID> studentIds
     ) throws SQLException {
-        String query = "INSERT INTO " + tableName +
-            " (id, user_id, subject_id) VALUES (?,?,?)";
+        return insertAllForSubject(Student.TYPE, subjectId, studentIds);
+    }
 
+    /**
+     * Remove every student from a subject other than the given students, in
+     * a single statement.
+     *
+     * @param subjectId  ID of the subject
+     * @param studentIds IDs of the students to keep
+     * @return the number of students removed
+     * @throws SQLException if unable to remove the students
+     */
+    public int deleteAllForSubjectExcept(
+        UUID subjectId,
+        Collection<UUID> studentIds
+    ) throws SQLException {
+        String query = "DELETE FROM " + tableName +
+            " WHERE subject_id = ? AND user_id <> ALL(?::uuid[])";
         Connection connection = DBConnection.getCurrent().getConnection();
 
         try (
             PreparedStatement statement = connection.prepareStatement(query);
         ) {
-            statement.setObject(1, enrolment.getId());
-            statement.setObject(2, enrolment.getStudentId());
-            statement.setObject(3, enrolment.getSubjectId());
-            statement.executeUpdate();
+            statement.setObject(1, subjectId);
+            statement.setArray(
+                2,
+                connection.createArrayOf("uuid", studentIds.toArray())
+            );
+            return statement.executeUpdate();
         }
     }
 
     @Override
-    public void update(
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
+            " (id, user_id, subject_id) VALUES (?,?,?)";
+    }
+
+    @Override
+    protected void bindInsert(
+        PreparedStatement statement,
         Enrolment enrolment
     ) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET user_id = ?, subject_id = ? WHERE id = ?";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
+        statement.setObject(1, enrolment.getId());
+        statement.setObject(2, enrolment.getStudentId());
+        statement.setObject(3, enrolment.getSubjectId());
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, enrolment.getStudentId());
-            statement.setObject(1, enrolment.getSubjectId());
-            statement.setObject(1, enrolment.getId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected Map<String, Column<Enrolment>> getColumns() {
+        return columns;
     }
 
     /**
@@ -136,19 +195,17 @@ public class EnrolmentMapper extends Mapper<Enrolment> {
     }
 
     @Override
-    protected Enrolment load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        Enrolment enrolment = (Enrolment) IdentityMap
-            .getCurrent()
-            .get(id);
-        if (enrolment != null) {
-            return enrolment;
-        }
-        UUID studentId = rs.getObject("user_id", java.util.UUID.class);
-        UUID subjectId = rs.getObject("subject_id", java.util.UUID.class);
+    protected Enrolment create(UUID id, Row row) throws SQLException {
+        UUID studentId = row.getObject(USER_ID, UUID.class);
+        UUID subjectId = row.getObject(SUBJECT_ID, UUID.class);
         return new Enrolment(id, studentId, subjectId);
     }
 
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
+    }
+
     @Override
     protected String getTableName() {
         return tableName;
@@ -0,0 +1,348 @@
+package com.ekzameno.ekzameno.mappers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import com.ekzameno.ekzameno.shared.Cache;
+import com.ekzameno.ekzameno.shared.DBConnection;
+import com.ekzameno.ekzameno.shared.Env;
+import com.ekzameno.ekzameno.shared.PrincipalCache;
+import com.ekzameno.ekzameno.shared.ResponseCache;
+import com.ekzameno.ekzameno.shared.UnitOfWork;
+
+/**
+ * Process wide, second level cache of rows shared by every request. Unlike
+ * the IdentityMap the cache holds committed rows rather than models, so each
+ * request still builds its own models from them.
+ *
+ * <p>
+ * Changes are published on the {@link #CHANNEL} notification channel when
+ * their transaction commits, so that the {@link EntityCacheListener} on every
+ * other node can evict them too. Changed users are published on the
+ * {@link #PRINCIPAL_CHANNEL} instead, and only evicted from the
+ * {@link PrincipalCache}, so that they do not invalidate cached rows or
+ * responses.
+ * </p>
+ */
+public final class EntityCache {
+    public static final String CHANNEL = "entity_cache";
+    public static final String PRINCIPAL_CHANNEL = "principal_cache";
+    // Notification payloads must be shorter than 8000 bytes.
+    private static final int IDS_PER_NOTIFICATION = 200;
+    private static final int maxSize = Env.getInt("ENTITY_CACHE_SIZE", 10000);
+    private static final long ttl = Env.getLong("ENTITY_CACHE_TTL_MS", 60000);
+    private static final Cache<UUID, Entry> rows = new Cache<>(maxSize, ttl);
+    private static final Cache<String, UUID> keys = new Cache<>(maxSize, ttl);
+    private static final Cache<String, ListEntry> lists =
+        new Cache<>(maxSize, ttl);
+    private static final AtomicLong generation = new AtomicLong();
+
+    private EntityCache() { }
+
+    /**
+     * Retrieve a cached row of a table with a given column value.
+     *
+     * @param table table the row belongs to
+     * @param prop  column to match
+     * @param value value of the column
+     * @return the cached row, or null if it is not cached
+     */
+    static Row get(String table, String prop, Object value) {
+        UUID id = "id".equals(prop)
+            ? (UUID) value
+            : keys.get(getKey(table, prop, value));
+
+        if (id == null) {
+            return null;
+        }
+
+        Entry entry = rows.get(id);
+        return entry == null || !entry.table.equals(table) ? null : entry.row;
+    }
+
+    /**
+     * Cache a row of a table found by a given column value, unless a row has
+     * been evicted since it was read or it may not have been committed.
+     *
+     * @param table      table the row belongs to
+     * @param prop       column the row was found by
+     * @param value      value of the column
+     * @param row        row to cache
+     * @param generation generation of the cache before the row was read
+     * @throws SQLException if unable to read the row's ID
+     */
+    static void put(
+        String table,
+        String prop,
+        Object value,
+        Row row,
+        long generation
+    ) throws SQLException {
+        if (!canCache(generation)) {
+            return;
+        }
+
+        UUID id = row.getObject(Mapper.ID, UUID.class);
+        rows.put(id, new Entry(table, row));
+
+        if (!"id".equals(prop)) {
+            keys.put(getKey(table, prop, value), id);
+        }
+    }
+
+    /**
+     * Retrieve the cached rows of a table with a given column value.
+     *
+     * @param table table the rows belong to
+     * @param prop  column to match
+     * @param value value of the column
+     * @return the cached rows, or null if they are not cached
+     */
+    static List<Row> getAll(String table, String prop, Object value) {
+        ListEntry entry = lists.get(getKey(table, prop, value));
+        return entry == null ? null : entry.rows;
+    }
+
+    /**
+     * Cache every row of a table with a given column value, unless a row has
+     * been evicted since they were read or they may not have been committed.
+     * The rows are evicted along with the
+     * value of the column, if it is an ID, or any of the rows.
+     *
+     * @param table      table the rows belong to
+     * @param prop       column the rows were found by
+     * @param value      value of the column
+     * @param rows       rows to cache
+     * @param generation generation of the cache before the rows were read
+     * @throws SQLException if unable to read the rows' IDs
+     */
+    static void putAll(
+        String table,
+        String prop,
+        Object value,
+        List<Row> rows,
+        long generation
+    ) throws SQLException {
+        Set<UUID> tags = new HashSet<>();
+
+        if (value instanceof UUID) {
+            tags.add((UUID) value);
+        }
+
+        for (Row row : rows) {
+            tags.add(row.getObject(Mapper.ID, UUID.class));
+        }
+
+        if (canCache(generation)) {
+            lists.put(
+                getKey(table, prop, value),
+                new ListEntry(List.copyOf(rows), tags)
+            );
+        }
+    }
+
+    /**
+     * Retrieve the current generation of the cache, which changes every time
+     * a row is evicted. Read it before reading rows to pass to
+     * {@link #put(String, String, Object, Row, long)} or
+     * {@link #putAll(String, String, Object, List, long)}.
+     *
+     * @return the current generation
+     */
+    static long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Remove the rows with the given IDs from the cache, along with any
+     * cached lists and responses containing them.
+     *
+     * @param ids IDs of the rows to remove
+     */
+    public static void evict(Collection<UUID> ids) {
+        // Evicting nothing must not fail the puts of concurrent requests.
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        generation.incrementAndGet();
+
+        for (UUID id : ids) {
+            rows.remove(id);
+        }
+
+        lists.removeIf((key, entry) -> {
+            for (UUID id : ids) {
+                if (entry.tags.contains(id)) {
+                    return true;
+                }
+            }
+
+            return false;
+        });
+        ResponseCache.getInstance().invalidate(ids);
+    }
+
+    /**
+     * Remove the users with the given IDs from the principal cache.
+     *
+     * @param ids IDs of the users to remove
+     */
+    public static void evictPrincipals(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            PrincipalCache.getInstance().invalidate(ids);
+        }
+    }
+
+    /**
+     * Remove every row from the cache, along with every cached list,
+     * response and principal.
+     */
+    public static void clear() {
+        generation.incrementAndGet();
+        rows.clear();
+        keys.clear();
+        lists.clear();
+        ResponseCache.getInstance().clear();
+        PrincipalCache.getInstance().clear();
+    }
+
+    /**
+     * Invalidate the rows with the given IDs, which are being changed by the
+     * current transaction. The rows are evicted straight away and again once
+     * the transaction completes, and the IDs are published to other nodes
+     * when the transaction commits.
+     *
+     * @param ids IDs of the rows being changed
+     * @throws SQLException if unable to publish the IDs
+     */
+    public static void invalidate(Collection<UUID> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<UUID> copy = new ArrayList<>(ids);
+        evict(copy);
+
+        DBConnection dbConnection = DBConnection.getCurrent();
+        dbConnection.markChanged();
+        dbConnection.onComplete(() -> evict(copy));
+        publish(dbConnection.getConnection(), CHANNEL, copy);
+    }
+
+    /**
+     * Invalidate the principals of the users with the given IDs, which are
+     * being changed by the current transaction. The users are evicted
+     * straight away and again once the transaction completes, and the IDs
+     * are published to other nodes when the transaction commits.
+     *
+     * @param ids IDs of the users being changed
+     * @throws SQLException if unable to publish the IDs
+     */
+    public static void invalidatePrincipals(
+        Collection<UUID> ids
+    ) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<UUID> copy = new ArrayList<>(ids);
+        evictPrincipals(copy);
+
+        DBConnection dbConnection = DBConnection.getCurrent();
+        dbConnection.onComplete(() -> evictPrincipals(copy));
+        publish(dbConnection.getConnection(), PRINCIPAL_CHANNEL, copy);
+    }
+
+    /**
+     * Retrieve statistics for the cached rows.
+     *
+     * @return point in time statistics
+     */
+    public static Cache.Stats getStats() {
+        return rows.getStats();
+    }
+
+    /**
+     * Retrieve statistics for the cached lists of rows.
+     *
+     * @return point in time statistics
+     */
+    public static Cache.Stats getListStats() {
+        return lists.getStats();
+    }
+
+    private static void publish(
+        Connection connection,
+        String channel,
+        List<UUID> ids
+    ) throws SQLException {
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_notify(?, ?)"
+            );
+        ) {
+            for (int i = 0; i < ids.size(); i += IDS_PER_NOTIFICATION) {
+                List<UUID> chunk = ids.subList(
+                    i,
+                    Math.min(i + IDS_PER_NOTIFICATION, ids.size())
+                );
+                statement.setString(1, channel);
+                statement.setString(
+                    2,
+                    chunk.stream()
+                        .map(UUID::toString)
+                        .collect(Collectors.joining(","))
+                );
+                statement.executeQuery().close();
+            }
+        }
+    }
+
+    private static boolean canCache(long generation) {
+        if (generation != EntityCache.generation.get()) {
+            return false;
+        }
+
+        // Rows read by a transaction with changes of its own may include
+        // changes that are never committed.
+        if (UnitOfWork.getCurrent().hasChanges()) {
+            return false;
+        }
+
+        return !DBConnection.getCurrent().hasUncommittedChanges();
+    }
+
+    private static String getKey(String table, String prop, Object value) {
+        return table + "." + prop + "=" + value;
+    }
+
+    private static class Entry {
+        private final String table;
+        private final Row row;
+
+        Entry(String table, Row row) {
+            this.table = table;
+            this.row = row;
+        }
+    }
+
+    private static class ListEntry {
+        private final List<Row> rows;
+        private final Set<UUID> tags;
+
+        ListEntry(List<Row> rows, Set<UUID> tags) {
+            this.rows = rows;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.ekzameno.ekzameno.mappers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Background thread which listens for changes published by other nodes and
+ * evicts them from the {@link EntityCache}, or from the principal cache for
+ * changed users.
+ */
+public class EntityCacheListener implements Runnable {
+    private static final EntityCacheListener instance =
+        new EntityCacheListener(System.getenv("JDBC_DATABASE_URL"));
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final int RECONNECT_DELAY_MS = 5000;
+
+    private final String url;
+    private volatile boolean running = false;
+    private Thread thread = null;
+
+    /**
+     * Create a listener for a given database.
+     *
+     * @param url URL of the database
+     */
+    public EntityCacheListener(String url) {
+        try {
+            Class.forName("org.postgresql.Driver");
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+
+        this.url = url;
+    }
+
+    /**
+     * Retrieve the application wide listener.
+     *
+     * @return the application wide listener
+     */
+    public static EntityCacheListener getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start listening on a background thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this, "entity-cache-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop listening and wait for the background thread to finish.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        thread.interrupt();
+
+        try {
+            thread.join(POLL_TIMEOUT_MS * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + EntityCache.CHANNEL);
+                    statement.execute(
+                        "LISTEN " + EntityCache.PRINCIPAL_CHANNEL
+                    );
+                }
+
+                // Changes made while no connection was listening were missed.
+                EntityCache.clear();
+                listen(connection.unwrap(PGConnection.class));
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+
+                e.printStackTrace();
+                EntityCache.clear();
+
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(PGConnection connection) throws SQLException {
+        while (running) {
+            PGNotification[] notifications =
+                connection.getNotifications(POLL_TIMEOUT_MS);
+
+            if (notifications == null) {
+                continue;
+            }
+
+            List<UUID> ids = new ArrayList<>();
+            List<UUID> principals = new ArrayList<>();
+
+            for (PGNotification notification : notifications) {
+                List<UUID> target =
+                    EntityCache.PRINCIPAL_CHANNEL.equals(notification.getName())
+                        ? principals
+                        : ids;
+
+                try {
+                    parseIds(notification.getParameter(), target);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+
+            try {
+                EntityCache.evict(ids);
+                EntityCache.evictPrincipals(principals);
+            } catch (RuntimeException e) {
+                // The changes could not be evicted one by one, so drop
+                // everything rather than keep serving them.
+                e.printStackTrace();
+                EntityCache.clear();
+            }
+        }
+    }
+
+    private static void parseIds(String payload, List<UUID> ids) {
+        for (String id : payload.split(",")) {
+            try {
+                ids.add(UUID.fromString(id.trim()));
+            } catch (IllegalArgumentException e) {
+                // Skip IDs which were not published by this application.
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -6,14 +6,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.ws.rs.NotFoundException;
 
 import com.ekzameno.ekzameno.models.DateRange;
 import com.ekzameno.ekzameno.models.Exam;
+import com.ekzameno.ekzameno.models.Question;
 import com.ekzameno.ekzameno.shared.DBConnection;
 import com.ekzameno.ekzameno.shared.IdentityMap;
 
@@ -21,7 +24,68 @@ import com.ekzameno.ekzameno.shared.IdentityMap;
  * Data Mapper for Exams.
  */
 public class ExamMapper extends Mapper<Exam> {
+    /**
+     * How much of an exam's question and option tree to load along with it.
+     * Each level includes the levels before it.
+     */
+    public enum Fetch {
+        EXAM,
+        QUESTIONS,
+        OPTIONS
+    }
+
     private static final String tableName = "exams";
+    private static final List<String> selectColumns = List.of(
+        "name",
+        "description",
+        "slug",
+        "start_time",
+        "finish_time",
+        "subject_id"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    private static final int NAME = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int SLUG = 5;
+    private static final int START_TIME = 6;
+    private static final int FINISH_TIME = 7;
+    private static final int SUBJECT_ID = 8;
+    private static final Map<String, Column<Exam>> columns = Map.of(
+        "name",
+        new Column<>(
+            "name",
+            (statement, i, exam) -> statement.setString(i, exam.getName())
+        ),
+        "description",
+        new Column<>(
+            "description",
+            (statement, i, exam) -> statement.setString(
+                i,
+                exam.getDescription()
+            )
+        ),
+        "startTime",
+        new Column<>(
+            "start_time",
+            (statement, i, exam) -> statement.setTimestamp(
+                i,
+                new Timestamp(exam.getStartTime().getTime())
+            )
+        ),
+        "finishTime",
+        new Column<>(
+            "finish_time",
+            (statement, i, exam) -> statement.setTimestamp(
+                i,
+                new Timestamp(exam.getFinishTime().getTime())
+            )
+        ),
+        "subjectId",
+        new Column<>(
+            "subject_id",
+            (statement, i, exam) -> statement.setObject(i, exam.getSubjectId())
+        )
+    );
 
     /**
      * Find an exam for a given slug.
@@ -49,6 +113,42 @@ public class ExamMapper extends Mapper<Exam> {
         return findBySlug(slug, false);
     }
 
+    /**
+     * Find an exam for a given slug, loading its questions and options
+     * according to a fetch plan. Each level of the tree is loaded with a
+     * single query.
+     *
+     * @param slug  slug of the exam to find
+     * @param fetch how much of the exam's tree to load
+     * @return exam with the given slug
+     * @throws SQLException if unable to retrieve the exam
+     */
+    public Exam findBySlug(String slug, Fetch fetch) throws SQLException {
+        Exam exam = findBySlug(slug);
+        fetch(List.of(exam), fetch);
+        return exam;
+    }
+
+    /**
+     * Load the questions and options of the given exams according to a
+     * fetch plan, filling their proxy lists.
+     *
+     * @param exams exams to load the tree for
+     * @param fetch how much of the exams' tree to load
+     * @throws SQLException if unable to retrieve the tree
+     */
+    public void fetch(Collection<Exam> exams, Fetch fetch) throws SQLException {
+        if (fetch == Fetch.EXAM || exams.isEmpty()) {
+            return;
+        }
+
+        List<Question> questions = new QuestionMapper().fetchForExams(exams);
+
+        if (fetch == Fetch.OPTIONS) {
+            new OptionMapper().fetchForQuestions(questions);
+        }
+    }
+
     /**
      * Retrieve all exams for a given subject ID.
      *
@@ -61,7 +161,8 @@ public class ExamMapper extends Mapper<Exam> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName + " WHERE subject_id = ?" +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
+            " WHERE subject_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
         Connection connection = DBConnection.getCurrent().getConnection();
@@ -98,6 +199,13 @@ public class ExamMapper extends Mapper<Exam> {
     /**
      * Retrieve all published exams for a given subject ID.
      *
+     * <p>
+     * Unless the rows are being locked, every exam of the subject is read
+     * from the {@link EntityCache} and compared against the current time, so
+     * the cached schedule stays correct as exams start without having to be
+     * evicted.
+     * </p>
+     *
      * @param id        ID of the subject to retrieve exams for
      * @param forUpdate whether the rows should be locked
      * @return exams for the given subject
@@ -107,8 +215,27 @@ public class ExamMapper extends Mapper<Exam> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName + " WHERE subject_id = ? " +
-            "AND start_time < NOW()" + (forUpdate ? " FOR UPDATE" : "");
+        if (!forUpdate) {
+            Date now = new Date();
+            List<Exam> exams = new ArrayList<>();
+
+            for (Row row : findScheduleForSubject(id)) {
+                Timestamp startTime = row.getTimestamp(START_TIME);
+
+                // Exams without a start time are never published, as in SQL.
+                if (startTime != null && startTime.before(now)) {
+                    Exam exam = load(row);
+                    IdentityMap.getCurrent().put(exam.getId(), exam);
+                    exams.add(exam);
+                }
+            }
+
+            return exams;
+        }
+
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
+            " WHERE subject_id = ? " +
+            "AND start_time < NOW() FOR UPDATE";
 
         Connection connection = DBConnection.getCurrent().getConnection();
 
@@ -141,80 +268,154 @@ public class ExamMapper extends Mapper<Exam> {
         return findAllPublishedExams(id, false);
     }
 
-    @Override
-    public void insert(Exam exam) throws SQLException {
-        String query = "INSERT INTO " + tableName +
-            " (id, slug, name, description, start_time, finish_time, " +
-            "subject_id) VALUES (?,?,?,?,?,?,?)";
+    /**
+     * Retrieve all exams which have not started yet but will start within a
+     * given number of milliseconds.
+     *
+     * @param window milliseconds from now to look ahead
+     * @return exams starting within the window
+     * @throws SQLException if unable to retrieve the exams
+     */
+    public List<Exam> findAllStartingWithin(long window) throws SQLException {
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
+            " WHERE start_time > NOW() " +
+            "AND start_time <= NOW() + make_interval(secs => ?)";
 
         Connection connection = DBConnection.getCurrent().getConnection();
 
         try (
             PreparedStatement statement = connection.prepareStatement(query);
         ) {
-            statement.setObject(1, exam.getId());
-            statement.setString(2, exam.getSlug());
-            statement.setString(3, exam.getName());
-            statement.setObject(4,exam.getDescription());
-            statement.setTimestamp(
-                5,
-                new Timestamp(exam.getStartTime().getTime())
-            );
-            statement.setTimestamp(
-                6,
-                new Timestamp(exam.getFinishTime().getTime())
-            );
-            statement.setObject(7, exam.getSubjectId());
-            statement.executeUpdate();
+            List<Exam> exams = new ArrayList<>();
+
+            statement.setDouble(1, window / 1000.0);
+            ResultSet rs = statement.executeQuery();
+
+            while (rs.next()) {
+                Exam exam = load(rs);
+                IdentityMap.getCurrent().put(exam.getId(), exam);
+                exams.add(exam);
+            }
+
+            return exams;
         }
     }
 
-    @Override
-    public void update(Exam exam) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET name = ?, description = ?, start_time = ?, " +
-            "finish_time = ?, subject_id = ? WHERE id = ?";
+    /**
+     * Retrieve all exams for the given subjects in a single query.
+     *
+     * @param ids IDs of the subjects to retrieve exams for
+     * @return exams keyed by the ID of the subject they belong to
+     * @throws SQLException if unable to retrieve the exams
+     */
+    public Map<UUID, List<Exam>> findAllForSubjects(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "exams",
+            "exams.subject_id",
+            ids
+        );
+    }
+
+    private List<Row> findScheduleForSubject(UUID id) throws SQLException {
+        List<Row> rows = EntityCache.getAll(tableName, "subject_id", id);
+
+        if (rows != null) {
+            return rows;
+        }
+
+        long generation = EntityCache.getGeneration();
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
+            " WHERE subject_id = ?";
 
         Connection connection = DBConnection.getCurrent().getConnection();
 
         try (
             PreparedStatement statement = connection.prepareStatement(query);
         ) {
-            statement.setString(1, exam.getName());
-            statement.setString(2, exam.getDescription());
-            statement.setTimestamp(
-                3,
-                new Timestamp(exam.getStartTime().getTime())
-            );
-            statement.setTimestamp(
-                4,
-                new Timestamp(exam.getFinishTime().getTime())
-            );
-            statement.setObject(5, exam.getSubjectId());
-            statement.setObject(6, exam.getId());
-            statement.executeUpdate();
+            rows = new ArrayList<>();
+
+            statement.setObject(1, id);
+            ResultSet rs = statement.executeQuery();
+
+            while (rs.next()) {
+                rows.add(readRow(rs));
+            }
         }
+
+        EntityCache.putAll(tableName, "subject_id", id, rows, generation);
+        return rows;
     }
 
     @Override
-    protected Exam load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        Exam exam = (Exam) IdentityMap.getCurrent().get(id);
-        if (exam != null) {
-            return exam;
-        }
-        String name = rs.getString("name");
-        String description = rs.getString("description");
-        String slug = rs.getString("slug");
-        Date startTime = rs.getTimestamp("start_time");
-        Date finishTime = rs.getTimestamp("finish_time");
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
+            " (id, slug, name, description, start_time, finish_time, " +
+            "subject_id) VALUES (?,?,?,?,?,?,?)";
+    }
+
+    @Override
+    protected void bindInsert(
+        PreparedStatement statement,
+        Exam exam
+    ) throws SQLException {
+        statement.setObject(1, exam.getId());
+        statement.setString(2, exam.getSlug());
+        statement.setString(3, exam.getName());
+        statement.setObject(4,exam.getDescription());
+        statement.setTimestamp(
+            5,
+            new Timestamp(exam.getStartTime().getTime())
+        );
+        statement.setTimestamp(
+            6,
+            new Timestamp(exam.getFinishTime().getTime())
+        );
+        statement.setObject(7, exam.getSubjectId());
+    }
+
+    @Override
+    protected Map<String, Column<Exam>> getColumns() {
+        return columns;
+    }
+
+    @Override
+    protected Exam create(UUID id, Row row) throws SQLException {
+        String name = row.getString(NAME);
+        String description = row.getString(DESCRIPTION);
+        String slug = row.getString(SLUG);
+        Date startTime = row.getTimestamp(START_TIME);
+        Date finishTime = row.getTimestamp(FINISH_TIME);
         DateRange dateRange = new DateRange(startTime, finishTime);
-        UUID subjectId = rs.getObject("subject_id", java.util.UUID.class);
+        UUID subjectId = row.getObject(SUBJECT_ID, UUID.class);
         return new Exam(id, name, description, dateRange, subjectId, slug);
     }
 
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
+    }
+
     @Override
     protected String getTableName() {
         return tableName;
     }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public List<UUID> findCascadedIds(
+        Collection<UUID> ids
+    ) throws SQLException {
+        List<UUID> questions = findIdsReferencing("questions", "exam_id", ids);
+        List<UUID> cascaded = new ArrayList<>(questions);
+        cascaded.addAll(
+            Mapper.getMapper(Question.class).findCascadedIds(questions)
+        );
+        return cascaded;
+    }
 }
@@ -5,7 +5,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.ws.rs.NotFoundException;
@@ -13,12 +15,48 @@ import javax.ws.rs.NotFoundException;
 import com.ekzameno.ekzameno.models.ExamSubmission;
 import com.ekzameno.ekzameno.shared.DBConnection;
 import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.Page;
 
 /**
  * Data Mapper for ExamSubmissions.
  */
 public class ExamSubmissionMapper extends Mapper<ExamSubmission> {
     private static final String tableName = "exam_submissions";
+    private static final Map<String, Column<ExamSubmission>> columns = Map.of(
+        "marks",
+        new Column<>(
+            "marks",
+            (statement, i, examSubmission) -> statement.setObject(
+                i,
+                examSubmission.getMarks()
+            )
+        ),
+        "studentId",
+        new Column<>(
+            "user_id",
+            (statement, i, examSubmission) -> statement.setObject(
+                i,
+                examSubmission.getStudentId()
+            )
+        ),
+        "examId",
+        new Column<>(
+            "exam_id",
+            (statement, i, examSubmission) -> statement.setObject(
+                i,
+                examSubmission.getExamId()
+            )
+        )
+    );
+    private static final List<String> selectColumns = List.of(
+        "marks",
+        "user_id",
+        "exam_id"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    private static final int MARKS = 3;
+    private static final int USER_ID = 4;
+    private static final int EXAM_ID = 5;
 
     /**
      * Find the ExamSubmission with the given relation IDs.
@@ -34,7 +72,7 @@ public class ExamSubmissionMapper extends Mapper<ExamSubmission> {
         UUID examId,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
             " WHERE user_id = ? AND exam_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
@@ -86,7 +124,8 @@ public class ExamSubmissionMapper extends Mapper<ExamSubmission> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName + " WHERE exam_id = ?" +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
+            " WHERE exam_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
         Connection connection = DBConnection.getCurrent().getConnection();
@@ -125,6 +164,23 @@ public class ExamSubmissionMapper extends Mapper<ExamSubmission> {
         return findAllForExam(id, false);
     }
 
+    /**
+     * Retrieve a page of exam submissions for a given exam ID, ordered by ID.
+     *
+     * @param id    ID of the exam to retrieve submissions for
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of submissions to return
+     * @return page of submissions for the given exam
+     * @throws SQLException if unable to retrieve the submissions
+     */
+    public Page<ExamSubmission> findPageForExam(
+        UUID id,
+        UUID after,
+        int limit
+    ) throws SQLException {
+        return findPage(tableName, "exam_id = ?", id, after, limit);
+    }
+
     /**
      * Retrieve all exam submissions for a given student ID.
      *
@@ -137,7 +193,7 @@ public class ExamSubmissionMapper extends Mapper<ExamSubmission> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
             " WHERE exam_submissions.user_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
@@ -177,58 +233,75 @@ public class ExamSubmissionMapper extends Mapper<ExamSubmission> {
         return findAllForStudent(id, false);
     }
 
-    @Override
-    public void insert(ExamSubmission examSubmission) throws SQLException {
-        String query = "INSERT INTO " + tableName +
-            " (id, marks, user_id, exam_id) VALUES (?,?,?,?)";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
+    /**
+     * Retrieve all exam submissions for the given exams in a single query.
+     *
+     * @param ids IDs of the exams to retrieve exam submissions for
+     * @return exam submissions keyed by the ID of the exam they belong to
+     * @throws SQLException if unable to retrieve the exam submissions
+     */
+    public Map<UUID, List<ExamSubmission>> findAllForExams(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "exam_submissions",
+            "exam_submissions.exam_id",
+            ids
+        );
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, examSubmission.getId());
-            statement.setObject(2, examSubmission.getMarks());
-            statement.setObject(3, examSubmission.getStudentId());
-            statement.setObject(4, examSubmission.getExamId());
-            statement.executeUpdate();
-        }
+    /**
+     * Retrieve all exam submissions for the given students in a single query.
+     *
+     * @param ids IDs of the students to retrieve exam submissions for
+     * @return exam submissions keyed by the ID of the student they belong to
+     * @throws SQLException if unable to retrieve the exam submissions
+     */
+    public Map<UUID, List<ExamSubmission>> findAllForStudents(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "exam_submissions",
+            "exam_submissions.user_id",
+            ids
+        );
     }
 
     @Override
-    public void update(ExamSubmission examSubmission) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET marks = ?, user_id = ?, exam_id = ? WHERE id = ?";
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
+            " (id, marks, user_id, exam_id) VALUES (?,?,?,?)";
+    }
 
-        Connection connection = DBConnection.getCurrent().getConnection();
+    @Override
+    protected void bindInsert(
+        PreparedStatement statement,
+        ExamSubmission examSubmission
+    ) throws SQLException {
+        statement.setObject(1, examSubmission.getId());
+        statement.setObject(2, examSubmission.getMarks());
+        statement.setObject(3, examSubmission.getStudentId());
+        statement.setObject(4, examSubmission.getExamId());
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, examSubmission.getMarks());
-            statement.setObject(2, examSubmission.getStudentId());
-            statement.setObject(3, examSubmission.getExamId());
-            statement.setObject(4, examSubmission.getId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected Map<String, Column<ExamSubmission>> getColumns() {
+        return columns;
     }
 
     @Override
-    protected ExamSubmission load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        ExamSubmission examSubmission = (ExamSubmission) IdentityMap
-            .getCurrent()
-            .get(id);
-        if (examSubmission != null) {
-            return examSubmission;
-        }
-        Integer marks = rs.getInt("marks");
-        marks = rs.wasNull() ? null : marks;
-        UUID studentId = rs.getObject("user_id", java.util.UUID.class);
-        UUID examId = rs.getObject("exam_id", java.util.UUID.class);
+    protected ExamSubmission create(UUID id, Row row) throws SQLException {
+        Integer marks = row.getObject(MARKS, Integer.class);
+        UUID studentId = row.getObject(USER_ID, UUID.class);
+        UUID examId = row.getObject(EXAM_ID, UUID.class);
         return new ExamSubmission(id, marks, studentId, examId);
     }
 
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
+    }
+
     @Override
     protected String getTableName() {
         return tableName;
@@ -5,7 +5,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.models.Instructor;
@@ -28,7 +30,7 @@ public class InstructorMapper extends AbstractUserMapper<Instructor> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT users.* FROM users " +
+        String query = "SELECT " + getSelectList() + " FROM users " +
             "JOIN instructor_subjects " +
             "ON users.id = instructor_subjects.user_id " +
             "WHERE instructor_subjects.subject_id = ?" +
@@ -65,16 +67,29 @@ public class InstructorMapper extends AbstractUserMapper<Instructor> {
         return findAllForSubject(id, false);
     }
 
+    /**
+     * Retrieve all instructors for the given subjects in a single query.
+     *
+     * @param ids IDs of the subjects to retrieve instructors for
+     * @return instructors keyed by the ID of the subject they belong to
+     * @throws SQLException if unable to retrieve the instructors
+     */
+    public Map<UUID, List<Instructor>> findAllForSubjects(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "users JOIN instructor_subjects " +
+                "ON users.id = instructor_subjects.user_id",
+            "instructor_subjects.subject_id",
+            ids
+        );
+    }
+
     @Override
-    protected Instructor load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        Instructor instructor = (Instructor) IdentityMap.getCurrent().get(id);
-        if (instructor != null) {
-            return instructor;
-        }
-        String email = rs.getString("email");
-        String name = rs.getString("name");
-        String passwordHash = rs.getString("password_hash");
+    protected Instructor create(UUID id, Row row) throws SQLException {
+        String email = row.getString(EMAIL);
+        String name = row.getString(NAME);
+        String passwordHash = row.getString(PASSWORD_HASH);
         return new Instructor(id, email, name, passwordHash);
     }
 
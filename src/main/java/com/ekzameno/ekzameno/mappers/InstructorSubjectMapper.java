@@ -4,10 +4,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.ws.rs.NotFoundException;
 
+import com.ekzameno.ekzameno.models.Instructor;
 import com.ekzameno.ekzameno.models.InstructorSubject;
 import com.ekzameno.ekzameno.shared.DBConnection;
 import com.ekzameno.ekzameno.shared.IdentityMap;
@@ -15,8 +19,35 @@ import com.ekzameno.ekzameno.shared.IdentityMap;
 /**
  * Data Mapper for InstructorSubjects.
  */
-public class InstructorSubjectMapper extends Mapper<InstructorSubject> {
+public class InstructorSubjectMapper
+        extends SubjectMembershipMapper<InstructorSubject> {
     private static final String tableName = "instructor_subjects";
+    private static final Map<String, Column<InstructorSubject>> columns =
+        Map.of(
+            "instructorId",
+            new Column<>(
+                "user_id",
+                (statement, i, instructorSubject) -> statement.setObject(
+                    i,
+                    instructorSubject.getInstructorId()
+                )
+            ),
+            "subjectId",
+            new Column<>(
+                "subject_id",
+                (statement, i, instructorSubject) -> statement.setObject(
+                    i,
+                    instructorSubject.getSubjectId()
+                )
+            )
+        );
+    private static final List<String> selectColumns = List.of(
+        "user_id",
+        "subject_id"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    private static final int USER_ID = 3;
+    private static final int SUBJECT_ID = 4;
 
     /**
      * Retrieve the InstructorSubject with the given relation IDs.
@@ -32,7 +63,7 @@ public class InstructorSubjectMapper extends Mapper<InstructorSubject> {
         UUID subjectId,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
             " WHERE user_id = ? AND subject_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
@@ -72,42 +103,42 @@ public class InstructorSubjectMapper extends Mapper<InstructorSubject> {
         return findByRelationIds(instructorId, subjectId, false);
     }
 
-    @Override
-    public void insert(
-        InstructorSubject instructorSubject
+    /**
+     * Add instructors to a subject in a single statement. Users which do not
+     * exist or are not instructors are ignored, as are users which are already
+     * related to the subject.
+     *
+     * @param subjectId     ID of the subject
+     * @param instructorIds IDs of the instructors
+     * @return whether each instructor found was added, by ID
+     * @throws SQLException if unable to add the instructors
+     */
+    public Map<UUID, Boolean> insertAllForSubject(
+        UUID subjectId,
+        Collection<UUID> instructorIds
     ) throws SQLException {
-        String query = "INSERT INTO " + tableName +
-            " (id, user_id, subject_id) VALUES (?,?,?)";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
+        return insertAllForSubject(Instructor.TYPE, subjectId, instructorIds);
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, instructorSubject.getId());
-            statement.setObject(2, instructorSubject.getInstructorId());
-            statement.setObject(3, instructorSubject.getSubjectId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
+            " (id, user_id, subject_id) VALUES (?,?,?)";
     }
 
     @Override
-    public void update(
+    protected void bindInsert(
+        PreparedStatement statement,
         InstructorSubject instructorSubject
     ) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET user_id = ?, subject_id = ? WHERE id = ?";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
+        statement.setObject(1, instructorSubject.getId());
+        statement.setObject(2, instructorSubject.getInstructorId());
+        statement.setObject(3, instructorSubject.getSubjectId());
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, instructorSubject.getInstructorId());
-            statement.setObject(1, instructorSubject.getSubjectId());
-            statement.setObject(1, instructorSubject.getId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected Map<String, Column<InstructorSubject>> getColumns() {
+        return columns;
     }
 
     /**
@@ -136,19 +167,17 @@ public class InstructorSubjectMapper extends Mapper<InstructorSubject> {
     }
 
     @Override
-    protected InstructorSubject load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        InstructorSubject instructorSubject = (InstructorSubject) IdentityMap
-            .getCurrent()
-            .get(id);
-        if (instructorSubject != null) {
-            return instructorSubject;
-        }
-        UUID instructorId = rs.getObject("user_id", java.util.UUID.class);
-        UUID subjectId = rs.getObject("subject_id", java.util.UUID.class);
+    protected InstructorSubject create(UUID id, Row row) throws SQLException {
+        UUID instructorId = row.getObject(USER_ID, UUID.class);
+        UUID subjectId = row.getObject(SUBJECT_ID, UUID.class);
         return new InstructorSubject(id, instructorId, subjectId);
     }
 
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
+    }
+
     @Override
     protected String getTableName() {
         return tableName;
@@ -5,15 +5,21 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
-import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.NotFoundException;
 
+import com.ekzameno.ekzameno.exceptions.PreconditionFailedException;
 import com.ekzameno.ekzameno.models.Model;
 import com.ekzameno.ekzameno.shared.DBConnection;
 import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.Page;
 
 /**
  * Abstract Data Mapper class.
@@ -21,6 +27,13 @@ import com.ekzameno.ekzameno.shared.IdentityMap;
  * @param <T> type of model the Data Mapper is for.
  */
 public abstract class Mapper<T extends Model> {
+    private static final int BATCH_SIZE = 500;
+    // Every select list starts with the id and version columns.
+    protected static final int ID = 1;
+    protected static final int VERSION = 2;
+
+    private String selectList = null;
+
     /**
      * Retrieve a Data Mapper for a given class.
      *
@@ -29,17 +42,7 @@ public abstract class Mapper<T extends Model> {
      * @return mapper for the given class
      */
     public static <T extends Model> Mapper<T> getMapper(Class<?> klass) {
-        try {
-            return (Mapper<T>) Class
-                .forName(
-                    "com.ekzameno.ekzameno.mappers." +
-                        klass.getSimpleName() + "Mapper"
-                )
-                .getDeclaredConstructor()
-                .newInstance();
-        } catch (Exception e) {
-            throw new InternalServerErrorException();
-        }
+        return MapperRegistry.get(klass);
     }
 
     /**
@@ -77,8 +80,22 @@ public abstract class Mapper<T extends Model> {
 
     protected T findByProp(String prop, Object value, boolean forUpdate)
         throws SQLException, NotFoundException {
-        String query = "SELECT * FROM " + getTableName() +
-            " WHERE " + prop + " = ?" + (forUpdate ? " FOR UPDATE" : "");
+        boolean cacheable = isCacheable();
+
+        if (cacheable && !forUpdate) {
+            Row row = EntityCache.get(getTableName(), prop, value);
+
+            if (row != null) {
+                T obj = load(row);
+                IdentityMap.getCurrent().put(obj.getId(), obj);
+                return obj;
+            }
+        }
+
+        long generation = EntityCache.getGeneration();
+        String query = "SELECT " + getSelectList() + " FROM " +
+            getTableName() + " WHERE " + prop + " = ?" +
+            (forUpdate ? " FOR UPDATE" : "");
         Connection connection = DBConnection.getCurrent().getConnection();
 
         try (
@@ -87,8 +104,21 @@ public abstract class Mapper<T extends Model> {
             statement.setObject(1, value);
             try (ResultSet rs = statement.executeQuery();) {
                 if (rs.next()) {
-                    T obj = load(rs);
+                    // Only rows going into the cache need to outlive rs.
+                    Row row = cacheable ? readRow(rs) : Row.of(rs);
+                    T obj = load(row);
                     IdentityMap.getCurrent().put(obj.getId(), obj);
+
+                    if (cacheable) {
+                        EntityCache.put(
+                            getTableName(),
+                            prop,
+                            value,
+                            row,
+                            generation
+                        );
+                    }
+
                     return obj;
                 } else {
                     throw new NotFoundException();
@@ -106,8 +136,8 @@ public abstract class Mapper<T extends Model> {
      */
     public List<T> findAll(boolean forUpdate) throws SQLException {
         IdentityMap identityMap = IdentityMap.getCurrent();
-        String query = "SELECT * FROM " + getTableName() +
-            (forUpdate ? " FOR UPDATE" : "");
+        String query = "SELECT " + getSelectList() + " FROM " +
+            getTableName() + (forUpdate ? " FOR UPDATE" : "");
 
         Connection connection = DBConnection.getCurrent().getConnection();
 
@@ -137,13 +167,144 @@ public abstract class Mapper<T extends Model> {
         return findAll(false);
     }
 
+    /**
+     * Find a page of models of a given type, ordered by ID.
+     *
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of models to return
+     * @return page of models
+     * @throws SQLException if unable to retrieve the models
+     */
+    public Page<T> findPage(UUID after, int limit) throws SQLException {
+        return findPage(getTableName(), null, null, after, limit);
+    }
+
+    protected Page<T> findPage(
+        String from,
+        String condition,
+        Object value,
+        UUID after,
+        int limit
+    ) throws SQLException {
+        String id = getTableName() + ".id";
+        List<String> conditions = new ArrayList<>();
+
+        if (condition != null) {
+            conditions.add(condition);
+        }
+
+        if (after != null) {
+            conditions.add(id + " > ?");
+        }
+
+        String query = "SELECT " + getSelectList() + " FROM " + from +
+            (conditions.isEmpty()
+                ? ""
+                : " WHERE " + String.join(" AND ", conditions)) +
+            " ORDER BY " + id + " LIMIT ?";
+
+        Connection connection = DBConnection.getCurrent().getConnection();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            int index = 1;
+
+            if (condition != null) {
+                statement.setObject(index++, value);
+            }
+
+            if (after != null) {
+                statement.setObject(index++, after);
+            }
+
+            // Fetch one extra row to find out whether there is another page.
+            statement.setInt(index, limit + 1);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                List<T> objects = new ArrayList<>();
+
+                while (rs.next()) {
+                    T obj = load(rs);
+                    IdentityMap.getCurrent().put(obj.getId(), obj);
+                    objects.add(obj);
+                }
+
+                if (objects.size() <= limit) {
+                    return new Page<>(objects, null);
+                }
+
+                objects.remove(limit);
+                return new Page<>(objects, objects.get(limit - 1).getId());
+            }
+        }
+    }
+
+    /**
+     * Retrieve the models belonging to any of the given parents in a single
+     * query, grouped by the ID of their parent.
+     *
+     * @param from         table expression to select from, including joins
+     * @param parentColumn qualified column holding the parent ID
+     * @param parentIds    IDs of the parents to retrieve models for
+     * @return models keyed by the ID of the parent they belong to
+     * @throws SQLException if unable to retrieve the models
+     */
+    protected Map<UUID, List<T>> findAllForParents(
+        String from,
+        String parentColumn,
+        Collection<UUID> parentIds
+    ) throws SQLException {
+        // The parent ID follows the columns read by load.
+        int parentOrdinal = VERSION + getSelectColumns().size() + 1;
+        String query = "SELECT " + getSelectList() + ", " + parentColumn +
+            " FROM " + from + " WHERE " + parentColumn + " = ANY(?)";
+
+        Connection connection = DBConnection.getCurrent().getConnection();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            statement.setArray(
+                1,
+                connection.createArrayOf("uuid", parentIds.toArray())
+            );
+
+            try (ResultSet rs = statement.executeQuery()) {
+                Map<UUID, List<T>> objects = new LinkedHashMap<>();
+
+                while (rs.next()) {
+                    T obj = load(rs);
+                    IdentityMap.getCurrent().put(obj.getId(), obj);
+                    UUID parentId = rs.getObject(parentOrdinal, UUID.class);
+                    objects.computeIfAbsent(parentId, k -> new ArrayList<>())
+                        .add(obj);
+                }
+
+                return objects;
+            }
+        }
+    }
+
     /**
      * Insert the given model.
      *
      * @param obj model to insert
      * @throws SQLException if unable to insert the model
      */
-    public abstract void insert(T obj) throws SQLException;
+    public void insert(T obj) throws SQLException {
+        insertAll(List.of(obj));
+    }
+
+    /**
+     * Insert the given models in as few round trips as possible.
+     *
+     * @param objs models to insert
+     * @throws SQLException if unable to insert the models
+     */
+    public void insertAll(Collection<? extends T> objs) throws SQLException {
+        executeBatch(getInsertQuery(), objs, this::bindInsert);
+    }
 
     /**
      * Update the given model.
@@ -151,7 +312,78 @@ public abstract class Mapper<T extends Model> {
      * @param obj model to update
      * @throws SQLException if unable to update the model
      */
-    public abstract void update(T obj) throws SQLException;
+    public void update(T obj) throws SQLException {
+        updateAll(List.of(obj));
+    }
+
+    /**
+     * Update the changed fields of the given models in as few round trips as
+     * possible. Models that change the same set of fields share a batched
+     * statement, and models without changes are skipped. Each update only
+     * applies if the row is still at the version the model was loaded at.
+     *
+     * @param objs models to update
+     * @throws SQLException if unable to update the models
+     * @throws PreconditionFailedException if a row has been changed since
+     *                                     its model was loaded
+     */
+    public void updateAll(Collection<? extends T> objs) throws SQLException {
+        Map<List<String>, List<T>> shapes = new LinkedHashMap<>();
+
+        for (T obj : objs) {
+            List<String> fields = new ArrayList<>(obj.getDirtyFields());
+
+            if (!fields.isEmpty()) {
+                Collections.sort(fields);
+                shapes.computeIfAbsent(fields, k -> new ArrayList<>()).add(obj);
+            }
+        }
+
+        for (Map.Entry<List<String>, List<T>> shape : shapes.entrySet()) {
+            List<Column<T>> columns = new ArrayList<>();
+
+            for (String field : shape.getKey()) {
+                Column<T> column = getColumns().get(field);
+
+                if (column == null) {
+                    throw new IllegalStateException(
+                        "No column for field " + field + " of " + getTableName()
+                    );
+                }
+
+                columns.add(column);
+            }
+
+            String query = "UPDATE " + getTableName() + " SET " +
+                columns
+                    .stream()
+                    .map(column -> column.name + " = ?")
+                    .collect(Collectors.joining(", ")) +
+                ", version = version + 1 WHERE id = ? AND version = ?";
+
+            List<T> models = shape.getValue();
+            int[] counts = executeBatch(query, models, (statement, obj) -> {
+                int index = 1;
+
+                for (Column<T> column : columns) {
+                    column.binder.bind(statement, index++, obj);
+                }
+
+                statement.setObject(index++, obj.getId());
+                statement.setInt(index, obj.getVersion());
+            });
+
+            for (int count : counts) {
+                if (count == 0) {
+                    throw new PreconditionFailedException();
+                }
+            }
+
+            for (T obj : models) {
+                obj.setVersion(obj.getVersion() + 1);
+            }
+        }
+    }
 
     /**
      * Delete the given model.
@@ -163,6 +395,34 @@ public abstract class Mapper<T extends Model> {
         deleteById(obj.getId());
     }
 
+    /**
+     * Delete the given models with a single statement.
+     *
+     * @param objs models to delete
+     * @throws SQLException if unable to delete the models
+     */
+    public void deleteAll(Collection<? extends T> objs) throws SQLException {
+        if (objs.isEmpty()) {
+            return;
+        }
+
+        String query = "DELETE FROM " + getTableName() + " WHERE id = ANY(?)";
+
+        Connection connection = DBConnection.getCurrent().getConnection();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            UUID[] ids = objs.stream().map(Model::getId).toArray(UUID[]::new);
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            statement.executeUpdate();
+
+            for (UUID id : ids) {
+                IdentityMap.getCurrent().remove(id);
+            }
+        }
+    }
+
     /**
      * Delete the model matching the given ID.
      *
@@ -170,6 +430,13 @@ public abstract class Mapper<T extends Model> {
      * @throws SQLException if unable to delete the model
      */
     public void deleteById(UUID id) throws SQLException {
+        List<UUID> changed = new ArrayList<>();
+
+        if (publishesChanges()) {
+            changed.add(id);
+            changed.addAll(findCascadedIds(changed));
+        }
+
         String query = "DELETE FROM " + getTableName() + " WHERE id = ?";
 
         Connection connection = DBConnection.getCurrent().getConnection();
@@ -180,10 +447,307 @@ public abstract class Mapper<T extends Model> {
             statement.setObject(1, id);
             statement.executeUpdate();
             IdentityMap.getCurrent().remove(id);
+            EntityCache.invalidate(changed);
+
+            if (publishesPrincipalChanges()) {
+                EntityCache.invalidatePrincipals(List.of(id));
+            }
+        }
+    }
+
+    private int[] executeBatch(
+        String query,
+        Collection<? extends T> objs,
+        Binder<T> binder
+    ) throws SQLException {
+        int[] counts = new int[objs.size()];
+
+        if (objs.isEmpty()) {
+            return counts;
+        }
+
+        Connection connection = DBConnection.getCurrent().getConnection();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            int pending = 0;
+            int executed = 0;
+
+            for (T obj : objs) {
+                binder.bind(statement, obj);
+                statement.addBatch();
+
+                if (++pending == BATCH_SIZE) {
+                    executed = copyCounts(statement, counts, executed);
+                    pending = 0;
+                }
+            }
+
+            if (pending > 0) {
+                copyCounts(statement, counts, executed);
+            }
+
+            return counts;
+        }
+    }
+
+    private static int copyCounts(
+        PreparedStatement statement,
+        int[] counts,
+        int offset
+    ) throws SQLException {
+        int[] batch = statement.executeBatch();
+        System.arraycopy(batch, 0, counts, offset, batch.length);
+        return offset + batch.length;
+    }
+
+    protected abstract String getInsertQuery();
+
+    protected abstract void bindInsert(
+        PreparedStatement statement,
+        T obj
+    ) throws SQLException;
+
+    /**
+     * Retrieve the updatable columns of the table, keyed by the name of the
+     * model field they store.
+     *
+     * @return updatable columns keyed by field name
+     */
+    protected abstract Map<String, Column<T>> getColumns();
+
+    /**
+     * Load a model from the current row of a result set selected with
+     * {@link #getSelectList()}, reusing the model in the IdentityMap if it
+     * has already been loaded.
+     *
+     * @param rs result set positioned at the row to load
+     * @return the loaded model
+     * @throws SQLException if unable to read the row
+     */
+    protected T load(ResultSet rs) throws SQLException {
+        return load(Row.of(rs));
+    }
+
+    /**
+     * Load a model from a row, reusing the model in the IdentityMap if it
+     * has already been loaded.
+     *
+     * @param row row selected with {@link #getSelectList()}
+     * @return the loaded model
+     * @throws SQLException if unable to read the row
+     */
+    protected T load(Row row) throws SQLException {
+        UUID id = row.getObject(ID, UUID.class);
+        T obj = (T) IdentityMap.getCurrent().get(id);
+
+        if (obj != null) {
+            return obj;
+        }
+
+        obj = create(id, row);
+        obj.setVersion(row.getInt(VERSION));
+        return obj;
+    }
+
+    /**
+     * Create a model from a row, reading columns by their ordinal in the
+     * select list.
+     *
+     * @param id  ID of the model
+     * @param row row selected with {@link #getSelectList()}
+     * @return a new model
+     * @throws SQLException if unable to read the row
+     */
+    protected abstract T create(UUID id, Row row) throws SQLException;
+
+    /**
+     * Whether rows found by ID or another unique column may be shared
+     * between requests through the {@link EntityCache}.
+     *
+     * @return true if the rows may be cached, false otherwise
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Whether the IDs of changed rows are evicted from the caches on every
+     * node when their transaction commits. Cacheable rows always are, as are
+     * rows which cached responses are built from.
+     *
+     * @return true if changes are published, false otherwise
+     */
+    public boolean publishesChanges() {
+        return isCacheable();
+    }
+
+    /**
+     * Whether the IDs of changed rows are evicted from the
+     * {@link com.ekzameno.ekzameno.shared.PrincipalCache} on every node when
+     * their transaction commits. They are published separately from other
+     * changes, so that changing a user does not evict any rows or responses.
+     *
+     * @return true if changes are published as principals, false otherwise
+     */
+    public boolean publishesPrincipalChanges() {
+        return false;
+    }
+
+    /**
+     * Find the IDs of published rows which the database deletes along with
+     * the given rows through ON DELETE CASCADE. Nothing else tells the caches
+     * that these rows have gone, so they are evicted with the deleted rows.
+     *
+     * @param ids IDs of the rows about to be deleted
+     * @return IDs of the rows deleted along with them
+     * @throws SQLException if unable to find the rows
+     */
+    public List<UUID> findCascadedIds(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new ArrayList<>();
+    }
+
+    /**
+     * Find the IDs of the rows of a table which reference any of the given
+     * IDs.
+     *
+     * @param table  table to search
+     * @param column column holding the referenced ID
+     * @param ids    referenced IDs
+     * @return IDs of the referencing rows
+     * @throws SQLException if unable to find the rows
+     */
+    protected List<UUID> findIdsReferencing(
+        String table,
+        String column,
+        Collection<UUID> ids
+    ) throws SQLException {
+        List<UUID> found = new ArrayList<>();
+
+        if (ids.isEmpty()) {
+            return found;
+        }
+
+        String query = "SELECT id FROM " + table + " WHERE " + column +
+            " = ANY(?)";
+        Connection connection = DBConnection.getCurrent().getConnection();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            statement.setArray(
+                1,
+                connection.createArrayOf("uuid", ids.toArray())
+            );
+
+            try (ResultSet rs = statement.executeQuery();) {
+                while (rs.next()) {
+                    found.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Copy the current row of a result set selected with
+     * {@link #getSelectList()}.
+     *
+     * @param rs result set positioned at the row to copy
+     * @return a copy of the row
+     * @throws SQLException if unable to read the row
+     */
+    protected Row readRow(ResultSet rs) throws SQLException {
+        return Row.read(rs, VERSION + getSelectColumns().size());
+    }
+
+    /**
+     * Retrieve the comma separated, table qualified columns to select for
+     * the model, in the order {@link #create(UUID, Row)} reads them.
+     *
+     * @return columns to select
+     */
+    protected String getSelectList() {
+        if (selectList == null) {
+            StringBuilder builder = new StringBuilder();
+            String table = getTableName();
+            builder.append(table).append(".id, ");
+            builder.append(table).append(".version");
+
+            for (String column : getSelectColumns()) {
+                builder.append(", ").append(table).append('.').append(column);
+            }
+
+            selectList = builder.toString();
         }
+
+        return selectList;
     }
 
-    protected abstract T load(ResultSet rs) throws SQLException;
+    /**
+     * Retrieve the columns read by {@link #create(UUID, Row)}, not
+     * including the id and version columns.
+     *
+     * @return columns to select after id and version
+     */
+    protected abstract List<String> getSelectColumns();
 
     protected abstract String getTableName();
+
+    /**
+     * Binds the parameters of a statement for a single model.
+     *
+     * @param <T> type of model to bind
+     */
+    @FunctionalInterface
+    private interface Binder<T> {
+        void bind(PreparedStatement statement, T obj) throws SQLException;
+    }
+
+    /**
+     * A column that can be written by a partial UPDATE.
+     *
+     * @param <T> type of model the column belongs to
+     */
+    protected static final class Column<T> {
+        private final String name;
+        private final ColumnBinder<T> binder;
+
+        /**
+         * Create a column.
+         *
+         * @param name   name of the column
+         * @param binder binds the model's value for the column
+         */
+        public Column(String name, ColumnBinder<T> binder) {
+            this.name = name;
+            this.binder = binder;
+        }
+    }
+
+    /**
+     * Binds a model's value for a single column.
+     *
+     * @param <T> type of model to bind
+     */
+    @FunctionalInterface
+    protected interface ColumnBinder<T> {
+        /**
+         * Bind the value of the column.
+         *
+         * @param statement statement to bind to
+         * @param index     index of the parameter
+         * @param obj       model to read the value from
+         * @throws SQLException if unable to bind the value
+         */
+        void bind(
+            PreparedStatement statement,
+            int index,
+            T obj
+        ) throws SQLException;
+    }
 }
@@ -0,0 +1,76 @@
+package com.ekzameno.ekzameno.mappers;
+
+import java.util.Map;
+
+import javax.ws.rs.InternalServerErrorException;
+
+import com.ekzameno.ekzameno.models.Administrator;
+import com.ekzameno.ekzameno.models.Enrolment;
+import com.ekzameno.ekzameno.models.Exam;
+import com.ekzameno.ekzameno.models.ExamSubmission;
+import com.ekzameno.ekzameno.models.Instructor;
+import com.ekzameno.ekzameno.models.InstructorSubject;
+import com.ekzameno.ekzameno.models.Model;
+import com.ekzameno.ekzameno.models.MultipleChoiceQuestion;
+import com.ekzameno.ekzameno.models.Option;
+import com.ekzameno.ekzameno.models.Question;
+import com.ekzameno.ekzameno.models.QuestionSubmission;
+import com.ekzameno.ekzameno.models.ShortAnswerQuestion;
+import com.ekzameno.ekzameno.models.Student;
+import com.ekzameno.ekzameno.models.Subject;
+import com.ekzameno.ekzameno.models.User;
+
+/**
+ * Registry of the Data Mapper for each model class. Mappers hold no state, so
+ * a single instance of each is shared by every thread.
+ */
+public final class MapperRegistry {
+    private static final Map<Class<? extends Model>, Mapper<?>> mappers =
+        Map.ofEntries(
+            Map.entry(User.class, new UserMapper()),
+            Map.entry(Student.class, new StudentMapper()),
+            Map.entry(Instructor.class, new InstructorMapper()),
+            Map.entry(Administrator.class, new AdministratorMapper()),
+            Map.entry(Subject.class, new SubjectMapper()),
+            Map.entry(Enrolment.class, new EnrolmentMapper()),
+            Map.entry(InstructorSubject.class, new InstructorSubjectMapper()),
+            Map.entry(Exam.class, new ExamMapper()),
+            Map.entry(Question.class, new QuestionMapper()),
+            Map.entry(
+                MultipleChoiceQuestion.class,
+                new MultipleChoiceQuestionMapper()
+            ),
+            Map.entry(
+                ShortAnswerQuestion.class,
+                new ShortAnswerQuestionMapper()
+            ),
+            Map.entry(Option.class, new OptionMapper()),
+            Map.entry(ExamSubmission.class, new ExamSubmissionMapper()),
+            Map.entry(
+                QuestionSubmission.class,
+                new QuestionSubmissionMapper()
+            )
+        );
+
+    private MapperRegistry() { }
+
+    /**
+     * Retrieve the Data Mapper for a given model class.
+     *
+     * @param <T>   generic type for the mapper
+     * @param klass class to retrieve a mapper for
+     * @return mapper for the given class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Model> Mapper<T> get(Class<?> klass) {
+        Mapper<?> mapper = mappers.get(klass);
+
+        if (mapper == null) {
+            throw new InternalServerErrorException(
+                "No mapper for " + klass.getName()
+            );
+        }
+
+        return (Mapper<T>) mapper;
+    }
+}
@@ -1,11 +1,9 @@
 package com.ekzameno.ekzameno.mappers;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.models.MultipleChoiceQuestion;
-import com.ekzameno.ekzameno.shared.IdentityMap;
 
 /**
  * Data Mapper for MultipleChoiceQuestions.
@@ -13,19 +11,17 @@ import com.ekzameno.ekzameno.shared.IdentityMap;
 public class MultipleChoiceQuestionMapper
         extends AbstractQuestionMapper<MultipleChoiceQuestion> {
     @Override
-    protected MultipleChoiceQuestion load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        MultipleChoiceQuestion multipleChoiceQuestion =
-            (MultipleChoiceQuestion) IdentityMap
-                .getCurrent()
-                .get(id);
-        if (multipleChoiceQuestion != null) {
-            return multipleChoiceQuestion;
-        }
-        String question = rs.getString("question");
-        int marks = rs.getInt("marks");
-        UUID examId = rs.getObject("exam_id", java.util.UUID.class);
-        return new MultipleChoiceQuestion(id, question, marks, examId);
+    protected MultipleChoiceQuestion create(UUID id, Row row)
+        throws SQLException {
+        String question = row.getString(QUESTION);
+        int marks = row.getInt(MARKS);
+        UUID examId = row.getObject(EXAM_ID, UUID.class);
+        return new MultipleChoiceQuestion(
+            id,
+            question,
+            marks,
+            examId
+        );
     }
 
     @Override
@@ -5,10 +5,15 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import com.ekzameno.ekzameno.models.MultipleChoiceQuestion;
 import com.ekzameno.ekzameno.models.Option;
+import com.ekzameno.ekzameno.models.Question;
 import com.ekzameno.ekzameno.shared.DBConnection;
 import com.ekzameno.ekzameno.shared.IdentityMap;
 
@@ -17,6 +22,38 @@ import com.ekzameno.ekzameno.shared.IdentityMap;
  */
 public class OptionMapper extends Mapper<Option> {
     private static final String tableName = "options";
+    private static final Map<String, Column<Option>> columns = Map.of(
+        "answer",
+        new Column<>(
+            "answer",
+            (statement, i, option) -> statement.setString(i, option.getAnswer())
+        ),
+        "correct",
+        new Column<>(
+            "correct",
+            (statement, i, option) -> statement.setBoolean(
+                i,
+                option.isCorrect()
+            )
+        ),
+        "questionId",
+        new Column<>(
+            "question_id",
+            (statement, i, option) -> statement.setObject(
+                i,
+                option.getQuestionId()
+            )
+        )
+    );
+    private static final List<String> selectColumns = List.of(
+        "answer",
+        "correct",
+        "question_id"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    private static final int ANSWER = 3;
+    private static final int CORRECT = 4;
+    private static final int QUESTION_ID = 5;
 
     /**
      * Retrieve all options for a given question ID.
@@ -30,7 +67,8 @@ public class OptionMapper extends Mapper<Option> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName + " WHERE question_id = ?" +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
+            " WHERE question_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
         Connection connection = DBConnection.getCurrent().getConnection();
@@ -64,57 +102,99 @@ public class OptionMapper extends Mapper<Option> {
         return findAllForQuestion(id, false);
     }
 
-    @Override
-    public void insert(Option option) throws SQLException {
-        String query = "INSERT INTO " + tableName +
-            " (id, answer, correct, question_id) VALUES (?,?,?,?)";
+    /**
+     * Retrieve all options for the given questions in a single query.
+     *
+     * @param ids IDs of the questions to retrieve options for
+     * @return options keyed by the ID of the question they belong to
+     * @throws SQLException if unable to retrieve the options
+     */
+    public Map<UUID, List<Option>> findAllForQuestions(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "options",
+            "options.question_id",
+            ids
+        );
+    }
 
-        Connection connection = DBConnection.getCurrent().getConnection();
+    /**
+     * Load the options for the multiple choice questions among the given
+     * questions in a single query and fill their option lists.
+     *
+     * @param questions questions to load the options for
+     * @throws SQLException if unable to retrieve the options
+     */
+    public void fetchForQuestions(
+        Collection<? extends Question> questions
+    ) throws SQLException {
+        List<MultipleChoiceQuestion> multipleChoiceQuestions = questions
+            .stream()
+            .filter(q -> q instanceof MultipleChoiceQuestion)
+            .map(q -> (MultipleChoiceQuestion) q)
+            .collect(Collectors.toList());
+
+        if (multipleChoiceQuestions.isEmpty()) {
+            return;
+        }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, option.getId());
-            statement.setString(2, option.getAnswer());
-            statement.setBoolean(3, option.isCorrect());
-            statement.setObject(4, option.getQuestionId());
-            statement.executeUpdate();
+        Map<UUID, List<Option>> options = findAllForQuestions(
+            multipleChoiceQuestions
+                .stream()
+                .map(Question::getId)
+                .collect(Collectors.toList())
+        );
+
+        for (MultipleChoiceQuestion question : multipleChoiceQuestions) {
+            question.getOptions().populate(
+                options.getOrDefault(question.getId(), List.of())
+            );
         }
     }
 
     @Override
-    public void update(Option option) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET answer = ?, correct = ?, question_id = ? WHERE id = ?";
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
+            " (id, answer, correct, question_id) VALUES (?,?,?,?)";
+    }
 
-        Connection connection = DBConnection.getCurrent().getConnection();
+    @Override
+    protected void bindInsert(
+        PreparedStatement statement,
+        Option option
+    ) throws SQLException {
+        statement.setObject(1, option.getId());
+        statement.setString(2, option.getAnswer());
+        statement.setBoolean(3, option.isCorrect());
+        statement.setObject(4, option.getQuestionId());
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setString(1, option.getAnswer());
-            statement.setBoolean(2, option.isCorrect());
-            statement.setObject(3, option.getQuestionId());
-            statement.setObject(4, option.getId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected Map<String, Column<Option>> getColumns() {
+        return columns;
     }
 
     @Override
-    protected Option load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        Option option = (Option) IdentityMap.getCurrent().get(id);
-        if (option != null) {
-            return option;
-        }
-        String answer = rs.getString("answer");
-        boolean correct = rs.getBoolean("correct");
-        UUID questionId = rs.getObject("question_id", java.util.UUID.class);
+    protected Option create(UUID id, Row row) throws SQLException {
+        String answer = row.getString(ANSWER);
+        boolean correct = row.getBoolean(CORRECT);
+        UUID questionId = row.getObject(QUESTION_ID, UUID.class);
         return new Option(id, answer, correct, questionId);
     }
 
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
+    }
+
     @Override
     protected String getTableName() {
         return tableName;
     }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
 }
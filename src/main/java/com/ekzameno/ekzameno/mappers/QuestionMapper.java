@@ -5,9 +5,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import com.ekzameno.ekzameno.models.Exam;
 import com.ekzameno.ekzameno.models.MultipleChoiceQuestion;
 import com.ekzameno.ekzameno.models.Question;
 import com.ekzameno.ekzameno.models.ShortAnswerQuestion;
@@ -30,7 +34,8 @@ public class QuestionMapper extends AbstractQuestionMapper<Question> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM questions WHERE exam_id = ?" +
+        String query = "SELECT " + getSelectList() +
+            " FROM questions WHERE exam_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
         Connection connection = DBConnection.getCurrent().getConnection();
@@ -64,21 +69,64 @@ public class QuestionMapper extends AbstractQuestionMapper<Question> {
         return findAllForExam(id, false);
     }
 
+    /**
+     * Retrieve all questions for the given exams in a single query.
+     *
+     * @param ids IDs of the exams to retrieve questions for
+     * @return questions keyed by the ID of the exam they belong to
+     * @throws SQLException if unable to retrieve the questions
+     */
+    public Map<UUID, List<Question>> findAllForExams(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "questions",
+            "questions.exam_id",
+            ids
+        );
+    }
+
+    /**
+     * Load the questions for the given exams in a single query and fill
+     * their question lists.
+     *
+     * @param exams exams to load the questions for
+     * @return the loaded questions
+     * @throws SQLException if unable to retrieve the questions
+     */
+    public List<Question> fetchForExams(
+        Collection<Exam> exams
+    ) throws SQLException {
+        Map<UUID, List<Question>> questions = findAllForExams(
+            exams.stream().map(Exam::getId).collect(Collectors.toList())
+        );
+        List<Question> fetched = new ArrayList<>();
+
+        for (Exam exam : exams) {
+            List<Question> examQuestions =
+                questions.getOrDefault(exam.getId(), List.of());
+            exam.getQuestions().populate(examQuestions);
+            fetched.addAll(examQuestions);
+        }
+
+        return fetched;
+    }
+
     @Override
-    protected Question load(ResultSet rs) throws SQLException {
-        String type = rs.getString("type");
+    protected Question create(UUID id, Row row) throws SQLException {
+        String type = row.getString(TYPE);
 
-        Mapper<?> mapper;
+        Mapper<? extends Question> mapper;
 
         if (type.equals(MultipleChoiceQuestion.TYPE)) {
-            mapper = new MultipleChoiceQuestionMapper();
+            mapper = MapperRegistry.get(MultipleChoiceQuestion.class);
         } else if (type.equals(ShortAnswerQuestion.TYPE)) {
-            mapper = new ShortAnswerQuestionMapper();
+            mapper = MapperRegistry.get(ShortAnswerQuestion.class);
         } else {
             throw new RuntimeException();
         }
 
-        return (Question) mapper.load(rs);
+        return mapper.create(id, row);
     }
 
     @Override
@@ -5,7 +5,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.ws.rs.NotFoundException;
@@ -19,6 +21,52 @@ import com.ekzameno.ekzameno.shared.IdentityMap;
  */
 public class QuestionSubmissionMapper extends Mapper<QuestionSubmission> {
     private static final String tableName = "question_submissions";
+    private static final Map<String, Column<QuestionSubmission>> columns =
+        Map.of(
+            "answer",
+            new Column<>(
+                "answer",
+                (statement, i, questionSubmission) -> statement.setString(
+                    i,
+                    questionSubmission.getAnswer()
+                )
+            ),
+            "examSubmissionId",
+            new Column<>(
+                "exam_submission_id",
+                (statement, i, questionSubmission) -> statement.setObject(
+                    i,
+                    questionSubmission.getExamSubmissionId()
+                )
+            ),
+            "questionId",
+            new Column<>(
+                "question_id",
+                (statement, i, questionSubmission) -> statement.setObject(
+                    i,
+                    questionSubmission.getQuestionId()
+                )
+            ),
+            "marks",
+            new Column<>(
+                "marks",
+                (statement, i, questionSubmission) -> statement.setObject(
+                    i,
+                    questionSubmission.getMarks()
+                )
+            )
+        );
+    private static final List<String> selectColumns = List.of(
+        "answer",
+        "question_id",
+        "exam_submission_id",
+        "marks"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    private static final int ANSWER = 3;
+    private static final int QUESTION_ID = 4;
+    private static final int EXAM_SUBMISSION_ID = 5;
+    private static final int MARKS = 6;
 
     /**
      * Retrieve the QuestionSubmission with the given relation IDs.
@@ -34,7 +82,7 @@ public class QuestionSubmissionMapper extends Mapper<QuestionSubmission> {
         UUID examSubmissionId,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
             " WHERE question_id = ? AND exam_submission_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
 
@@ -87,7 +135,7 @@ public class QuestionSubmissionMapper extends Mapper<QuestionSubmission> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM " + tableName +
+        String query = "SELECT " + getSelectList() + " FROM " + tableName +
             " WHERE exam_submission_id = ?" + (forUpdate ? " FOR UPDATE" : "");
 
         Connection connection = DBConnection.getCurrent().getConnection();
@@ -140,7 +188,7 @@ public class QuestionSubmissionMapper extends Mapper<QuestionSubmission> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT question_submissions.* " +
+        String query = "SELECT " + getSelectList() + " " +
             "FROM question_submissions " +
             "WHERE question_submissions.question_id = ?" +
             (forUpdate ? " FOR UPDATE" : "");
@@ -182,68 +230,87 @@ public class QuestionSubmissionMapper extends Mapper<QuestionSubmission> {
         return findAllForQuestion(id, false);
     }
 
+    /**
+     * Retrieve all question submissions for the given exam submissions in a
+     * single query.
+     *
+     * @param ids IDs of the exam submissions to retrieve question submissions
+     *            for
+     * @return question submissions keyed by the ID of the exam submission
+     *         they belong to
+     * @throws SQLException if unable to retrieve the question submissions
+     */
+    public Map<UUID, List<QuestionSubmission>> findAllForExamSubmissions(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "question_submissions",
+            "question_submissions.exam_submission_id",
+            ids
+        );
+    }
+
+    /**
+     * Retrieve all question submissions for the given questions in a single
+     * query.
+     *
+     * @param ids IDs of the questions to retrieve question submissions for
+     * @return question submissions keyed by the ID of the question they
+     *         belong to
+     * @throws SQLException if unable to retrieve the question submissions
+     */
+    public Map<UUID, List<QuestionSubmission>> findAllForQuestions(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "question_submissions",
+            "question_submissions.question_id",
+            ids
+        );
+    }
+
     @Override
-    public void insert(QuestionSubmission questionSubmission)
-            throws SQLException {
-        String query = "INSERT INTO " + tableName +
+    protected String getInsertQuery() {
+        return "INSERT INTO " + tableName +
             " (id, answer, exam_submission_id, question_id, marks) " +
             "VALUES (?,?,?,?,?)";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
-
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, questionSubmission.getId());
-            statement.setString(2, questionSubmission.getAnswer());
-            statement.setObject(3, questionSubmission.getExamSubmissionId());
-            statement.setObject(4, questionSubmission.getQuestionId());
-            statement.setObject(5, questionSubmission.getMarks());
-            statement.executeUpdate();
-        }
     }
 
     @Override
-    public void update(QuestionSubmission questionSubmission)
-            throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET answer = ?, exam_submission_id = ?, question_id = ?, " +
-            "marks = ? WHERE id = ?";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
+    protected void bindInsert(
+        PreparedStatement statement,
+        QuestionSubmission questionSubmission
+    ) throws SQLException {
+        statement.setObject(1, questionSubmission.getId());
+        statement.setString(2, questionSubmission.getAnswer());
+        statement.setObject(3, questionSubmission.getExamSubmissionId());
+        statement.setObject(4, questionSubmission.getQuestionId());
+        statement.setObject(5, questionSubmission.getMarks());
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setString(1, questionSubmission.getAnswer());
-            statement.setObject(2, questionSubmission.getExamSubmissionId());
-            statement.setObject(3, questionSubmission.getQuestionId());
-            statement.setObject(4, questionSubmission.getMarks());
-            statement.setObject(5, questionSubmission.getId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected Map<String, Column<QuestionSubmission>> getColumns() {
+        return columns;
     }
 
     @Override
-    protected QuestionSubmission load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        QuestionSubmission questionSubmission =
-            (QuestionSubmission) IdentityMap
-                .getCurrent()
-                .get(id);
-        if (questionSubmission != null) {
-            return questionSubmission;
-        }
-        String answer = rs.getString("answer");
-        UUID questionId = rs.getObject("question_id", java.util.UUID.class);
-        UUID examSubmissionId = rs.getObject(
-            "exam_submission_id",
-            java.util.UUID.class
+    protected QuestionSubmission create(UUID id, Row row) throws SQLException {
+        String answer = row.getString(ANSWER);
+        UUID questionId = row.getObject(QUESTION_ID, UUID.class);
+        UUID examSubmissionId = row.getObject(EXAM_SUBMISSION_ID, UUID.class);
+        Integer marks = row.getObject(MARKS, Integer.class);
+        return new QuestionSubmission(
+            id,
+            answer,
+            questionId,
+            examSubmissionId,
+            marks
         );
-        Integer marks = rs.getInt("marks");
-        marks = rs.wasNull() ? null : marks;
-        return new QuestionSubmission(id, answer, questionId,
-        examSubmissionId, marks);
+    }
+
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
     }
 
     @Override
@@ -0,0 +1,121 @@
+package com.ekzameno.ekzameno.mappers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * The selected columns of a single result set row, read by ordinal. A row is
+ * either a view of the current row of a result set, which reads each column
+ * with its typed getter, or an immutable copy which outlives the result set
+ * and can be shared through the {@link EntityCache}.
+ */
+abstract class Row {
+    /**
+     * View the current row of a result set. The view reads from the result
+     * set, so it must not be used once the result set has moved on.
+     *
+     * @param rs result set positioned at the row to view
+     * @return a view of the row
+     */
+    static Row of(ResultSet rs) {
+        return new View(rs);
+    }
+
+    /**
+     * Copy the first columns of the current row of a result set.
+     *
+     * @param rs      result set positioned at the row to copy
+     * @param columns number of columns to copy
+     * @return a copy of the row
+     * @throws SQLException if unable to read the row
+     */
+    static Row read(ResultSet rs, int columns) throws SQLException {
+        Object[] values = new Object[columns];
+
+        for (int i = 0; i < columns; i++) {
+            values[i] = rs.getObject(i + 1);
+        }
+
+        return new Copy(values);
+    }
+
+    abstract String getString(int ordinal) throws SQLException;
+
+    abstract int getInt(int ordinal) throws SQLException;
+
+    abstract boolean getBoolean(int ordinal) throws SQLException;
+
+    abstract Timestamp getTimestamp(int ordinal) throws SQLException;
+
+    abstract <V> V getObject(int ordinal, Class<V> type) throws SQLException;
+
+    private static final class View extends Row {
+        private final ResultSet rs;
+
+        private View(ResultSet rs) {
+            this.rs = rs;
+        }
+
+        @Override
+        String getString(int ordinal) throws SQLException {
+            return rs.getString(ordinal);
+        }
+
+        @Override
+        int getInt(int ordinal) throws SQLException {
+            return rs.getInt(ordinal);
+        }
+
+        @Override
+        boolean getBoolean(int ordinal) throws SQLException {
+            return rs.getBoolean(ordinal);
+        }
+
+        @Override
+        Timestamp getTimestamp(int ordinal) throws SQLException {
+            return rs.getTimestamp(ordinal);
+        }
+
+        @Override
+        <V> V getObject(int ordinal, Class<V> type) throws SQLException {
+            return rs.getObject(ordinal, type);
+        }
+    }
+
+    private static final class Copy extends Row {
+        private final Object[] values;
+
+        private Copy(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        String getString(int ordinal) {
+            return (String) values[ordinal - 1];
+        }
+
+        @Override
+        int getInt(int ordinal) {
+            Object value = values[ordinal - 1];
+            return value == null ? 0 : ((Number) value).intValue();
+        }
+
+        @Override
+        boolean getBoolean(int ordinal) {
+            Object value = values[ordinal - 1];
+            return value != null && (Boolean) value;
+        }
+
+        @Override
+        Timestamp getTimestamp(int ordinal) {
+            Timestamp value = (Timestamp) values[ordinal - 1];
+            return value == null ? null : (Timestamp) value.clone();
+        }
+
+        @Override
+        <V> V getObject(int ordinal, Class<V> type) {
+            return type.cast(values[ordinal - 1]);
+        }
+    }
+}
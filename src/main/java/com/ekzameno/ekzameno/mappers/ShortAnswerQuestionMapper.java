@@ -1,11 +1,9 @@
 package com.ekzameno.ekzameno.mappers;
 
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.models.ShortAnswerQuestion;
-import com.ekzameno.ekzameno.shared.IdentityMap;
 
 /**
  * Data Mapper for ShortAnswerQuestions.
@@ -13,19 +11,16 @@ import com.ekzameno.ekzameno.shared.IdentityMap;
 public class ShortAnswerQuestionMapper
         extends AbstractQuestionMapper<ShortAnswerQuestion> {
     @Override
-    protected ShortAnswerQuestion load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        ShortAnswerQuestion shortAnswerQuestion =
-            (ShortAnswerQuestion) IdentityMap
-                .getCurrent()
-                .get(id);
-        if (shortAnswerQuestion != null) {
-            return shortAnswerQuestion;
-        }
-        String question = rs.getString("question");
-        int marks = rs.getInt("marks");
-        UUID examId = rs.getObject("exam_id", java.util.UUID.class);
-        return new ShortAnswerQuestion(id, question, marks, examId);
+    protected ShortAnswerQuestion create(UUID id, Row row) throws SQLException {
+        String question = row.getString(QUESTION);
+        int marks = row.getInt(MARKS);
+        UUID examId = row.getObject(EXAM_ID, UUID.class);
+        return new ShortAnswerQuestion(
+            id,
+            question,
+            marks,
+            examId
+        );
     }
 
     @Override
@@ -5,7 +5,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.models.Student;
@@ -28,7 +30,7 @@ public class StudentMapper extends AbstractUserMapper<Student> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT users.* FROM users " +
+        String query = "SELECT " + getSelectList() + " FROM users " +
             "JOIN enrolments " +
             "ON users.id = enrolments.user_id " +
             "WHERE enrolments.subject_id = ?" +
@@ -65,16 +67,28 @@ public class StudentMapper extends AbstractUserMapper<Student> {
         return findAllForSubject(id, false);
     }
 
+    /**
+     * Retrieve all students for the given subjects in a single query.
+     *
+     * @param ids IDs of the subjects to retrieve students for
+     * @return students keyed by the ID of the subject they belong to
+     * @throws SQLException if unable to retrieve the students
+     */
+    public Map<UUID, List<Student>> findAllForSubjects(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "users JOIN enrolments ON users.id = enrolments.user_id",
+            "enrolments.subject_id",
+            ids
+        );
+    }
+
     @Override
-    protected Student load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        Student student = (Student) IdentityMap.getCurrent().get(id);
-        if (student != null) {
-            return student;
-        }
-        String email = rs.getString("email");
-        String name = rs.getString("name");
-        String passwordHash = rs.getString("password_hash");
+    protected Student create(UUID id, Row row) throws SQLException {
+        String email = row.getString(EMAIL);
+        String name = row.getString(NAME);
+        String passwordHash = row.getString(PASSWORD_HASH);
         return new Student(id, email, name, passwordHash);
     }
 
@@ -5,20 +5,48 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.ws.rs.NotFoundException;
 
+import com.ekzameno.ekzameno.models.Exam;
 import com.ekzameno.ekzameno.models.Subject;
 import com.ekzameno.ekzameno.shared.DBConnection;
 import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.Page;
 
 /**
  * Data Mapper for Subjects.
  */
 public class SubjectMapper extends Mapper<Subject> {
     private static final String tableName = "subjects";
+    private static final List<String> selectColumns = List.of(
+        "name",
+        "description",
+        "slug"
+    );
+    // Ordinals of the selected columns, which follow id and version.
+    private static final int NAME = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int SLUG = 5;
+    private static final Map<String, Column<Subject>> columns = Map.of(
+        "name",
+        new Column<>(
+            "name",
+            (statement, i, subject) -> statement.setString(i, subject.getName())
+        ),
+        "description",
+        new Column<>(
+            "description",
+            (statement, i, subject) -> statement.setString(
+                i,
+                subject.getDescription()
+            )
+        )
+    );
 
     /**
      * Find a subject for a given slug.
@@ -47,6 +75,32 @@ public class SubjectMapper extends Mapper<Subject> {
         return findBySlug(slug, false);
     }
 
+    /**
+     * Lock the row of a subject until the end of the current transaction.
+     * Unlike finding the subject for update, this always queries the
+     * database, even when the subject is already in the identity map.
+     *
+     * @param id ID of the subject to lock
+     * @throws SQLException if unable to lock the subject
+     */
+    public void lock(UUID id) throws SQLException, NotFoundException {
+        String query = "SELECT id FROM " + tableName +
+            " WHERE id = ? FOR UPDATE";
+        Connection connection = DBConnection.getCurrent().getConnection();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            statement.setObject(1, id);
+
+            try (ResultSet rs = statement.executeQuery();) {
+                if (!rs.next()) {
+                    throw new NotFoundException();
+                }
+            }
+        }
+    }
+
     /**
      * Retrieve all subjects for a given student ID.
      *
@@ -59,7 +113,7 @@ public class SubjectMapper extends Mapper<Subject> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT subjects.* FROM subjects " +
+        String query = "SELECT " + getSelectList() + " FROM subjects " +
             "JOIN enrolments " +
             "ON subjects.id = enrolments.subject_id " +
             "WHERE enrolments.user_id = ?" + (forUpdate ? " FOR UPDATE" : "");
@@ -95,6 +149,53 @@ public class SubjectMapper extends Mapper<Subject> {
         return findAllForStudent(id, false);
     }
 
+    /**
+     * Retrieve a page of subjects for a given student ID, ordered by ID.
+     *
+     * @param id    ID of the student to retrieve subjects for
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of subjects to return
+     * @return page of subjects for the given student
+     * @throws SQLException if unable to retrieve the subjects
+     */
+    public Page<Subject> findPageForStudent(
+        UUID id,
+        UUID after,
+        int limit
+    ) throws SQLException {
+        return findPage(
+            "subjects JOIN enrolments ON subjects.id = enrolments.subject_id",
+            "enrolments.user_id = ?",
+            id,
+            after,
+            limit
+        );
+    }
+
+    /**
+     * Retrieve a page of subjects for a given instructor ID, ordered by ID.
+     *
+     * @param id    ID of the instructor to retrieve subjects for
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of subjects to return
+     * @return page of subjects for the given instructor
+     * @throws SQLException if unable to retrieve the subjects
+     */
+    public Page<Subject> findPageForInstructor(
+        UUID id,
+        UUID after,
+        int limit
+    ) throws SQLException {
+        return findPage(
+            "subjects JOIN instructor_subjects " +
+                "ON subjects.id = instructor_subjects.subject_id",
+            "instructor_subjects.user_id = ?",
+            id,
+            after,
+            limit
+        );
+    }
+
     /**
      * Retrieve subjects for a given instructor ID.
      *
@@ -107,7 +208,7 @@ public class SubjectMapper extends Mapper<Subject> {
         UUID id,
         boolean forUpdate
     ) throws SQLException {
-        String query = "SELECT * FROM subjects " +
+        String query = "SELECT " + getSelectList() + " FROM subjects " +
             "JOIN instructor_subjects ON " +
             "subjects.id = instructor_subjects.subject_id " +
             "WHERE instructor_subjects.user_id = ?" +
@@ -144,57 +245,94 @@ public class SubjectMapper extends Mapper<Subject> {
         return findAllForInstructor(id, false);
     }
 
+    /**
+     * Retrieve all subjects for the given instructors in a single query.
+     *
+     * @param ids IDs of the instructors to retrieve subjects for
+     * @return subjects keyed by the ID of the instructor they belong to
+     * @throws SQLException if unable to retrieve the subjects
+     */
+    public Map<UUID, List<Subject>> findAllForInstructors(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "subjects JOIN instructor_subjects " +
+                "ON subjects.id = instructor_subjects.subject_id",
+            "instructor_subjects.user_id",
+            ids
+        );
+    }
+
+    /**
+     * Retrieve all subjects for the given students in a single query.
+     *
+     * @param ids IDs of the students to retrieve subjects for
+     * @return subjects keyed by the ID of the student they belong to
+     * @throws SQLException if unable to retrieve the subjects
+     */
+    public Map<UUID, List<Subject>> findAllForStudents(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return findAllForParents(
+            "subjects JOIN enrolments ON subjects.id = enrolments.subject_id",
+            "enrolments.user_id",
+            ids
+        );
+    }
+
     @Override
-    public void insert(Subject subject) throws SQLException {
-        String query = "INSERT INTO " +
+    protected String getInsertQuery() {
+        return "INSERT INTO " +
             tableName +
             " (id, slug, name, description) VALUES (?,?,?,?)";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
-
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setObject(1, subject.getId());
-            statement.setString(2, subject.getSlug());
-            statement.setString(3, subject.getName());
-            statement.setString(4, subject.getDescription());
-            statement.executeUpdate();
-        }
     }
 
     @Override
-    public void update(Subject subject) throws SQLException {
-        String query = "UPDATE " + tableName +
-            " SET name = ?, description = ? WHERE id = ?";
-
-        Connection connection = DBConnection.getCurrent().getConnection();
+    protected void bindInsert(
+        PreparedStatement statement,
+        Subject subject
+    ) throws SQLException {
+        statement.setObject(1, subject.getId());
+        statement.setString(2, subject.getSlug());
+        statement.setString(3, subject.getName());
+        statement.setString(4, subject.getDescription());
+    }
 
-        try (
-            PreparedStatement statement = connection.prepareStatement(query);
-        ) {
-            statement.setString(1, subject.getName());
-            statement.setString(2, subject.getDescription());
-            statement.setObject(3, subject.getId());
-            statement.executeUpdate();
-        }
+    @Override
+    protected Map<String, Column<Subject>> getColumns() {
+        return columns;
     }
 
     @Override
-    protected Subject load(ResultSet rs) throws SQLException {
-        UUID id = rs.getObject("id", java.util.UUID.class);
-        Subject subject = (Subject) IdentityMap.getCurrent().get(id);
-        if (subject != null) {
-            return subject;
-        }
-        String name = rs.getString("name");
-        String description = rs.getString("description");
-        String slug = rs.getString("slug");
+    protected Subject create(UUID id, Row row) throws SQLException {
+        String name = row.getString(NAME);
+        String description = row.getString(DESCRIPTION);
+        String slug = row.getString(SLUG);
         return new Subject(id, name, description, slug);
     }
 
+    @Override
+    protected List<String> getSelectColumns() {
+        return selectColumns;
+    }
+
     @Override
     protected String getTableName() {
         return tableName;
     }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public List<UUID> findCascadedIds(
+        Collection<UUID> ids
+    ) throws SQLException {
+        List<UUID> exams = findIdsReferencing("exams", "subject_id", ids);
+        List<UUID> cascaded = new ArrayList<>(exams);
+        cascaded.addAll(Mapper.getMapper(Exam.class).findCascadedIds(exams));
+        return cascaded;
+    }
 }
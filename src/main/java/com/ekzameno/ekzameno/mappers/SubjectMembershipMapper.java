@@ -0,0 +1,76 @@
+package com.ekzameno.ekzameno.mappers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.ekzameno.ekzameno.models.Model;
+import com.ekzameno.ekzameno.shared.DBConnection;
+
+/**
+ * Abstract Data Mapper for the join tables relating users to subjects.
+ *
+ * @param <T> type of the relations
+ */
+public abstract class SubjectMembershipMapper<T extends Model>
+        extends Mapper<T> {
+    /**
+     * Relate users of a type to a subject in a single statement, through this
+     * mapper's join table. Users which do not exist or are not of the type
+     * are ignored, as are users which are already related to the subject.
+     *
+     * @param userType  type of the users to relate
+     * @param subjectId ID of the subject
+     * @param userIds   IDs of the users
+     * @return whether each user found was added, by ID
+     * @throws SQLException if unable to add the users
+     */
+    protected Map<UUID, Boolean> insertAllForSubject(
+        String userType,
+        UUID subjectId,
+        Collection<UUID> userIds
+    ) throws SQLException {
+        String query = "WITH requested (id, user_id) AS (" +
+            "SELECT * FROM unnest(?::uuid[], ?::uuid[])), " +
+            "found AS (SELECT requested.* FROM requested " +
+            "JOIN users ON users.id = requested.user_id " +
+            "AND users.type = ?), " +
+            "inserted AS (INSERT INTO " + getTableName() +
+            " (id, user_id, subject_id) SELECT id, user_id, ? FROM found " +
+            "ON CONFLICT DO NOTHING RETURNING user_id) " +
+            "SELECT found.user_id, inserted.user_id IS NOT NULL " +
+            "FROM found LEFT JOIN inserted USING (user_id)";
+        Connection connection = DBConnection.getCurrent().getConnection();
+        Object[] ids = new Object[userIds.size()];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            Map<UUID, Boolean> added = new HashMap<>();
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            statement.setArray(
+                2,
+                connection.createArrayOf("uuid", userIds.toArray())
+            );
+            statement.setString(3, userType);
+            statement.setObject(4, subjectId);
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    added.put(rs.getObject(1, UUID.class), rs.getBoolean(2));
+                }
+            }
+
+            return added;
+        }
+    }
+}
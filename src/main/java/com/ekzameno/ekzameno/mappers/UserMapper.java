@@ -1,38 +1,136 @@
 package com.ekzameno.ekzameno.mappers;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
+import com.ekzameno.ekzameno.dtos.CreateUserDTO;
 import com.ekzameno.ekzameno.models.Administrator;
 import com.ekzameno.ekzameno.models.Instructor;
 import com.ekzameno.ekzameno.models.Student;
 import com.ekzameno.ekzameno.models.User;
+import com.ekzameno.ekzameno.shared.DBConnection;
 
 /**
  * Data Mapper for Users.
  */
 public class UserMapper extends AbstractUserMapper<User> {
+    /**
+     * Find which of the given email addresses already belong to a user.
+     *
+     * @param emails email addresses to check
+     * @return the email addresses which are taken
+     * @throws SQLException if unable to check the email addresses
+     */
+    public Set<String> findTakenEmails(
+        Collection<String> emails
+    ) throws SQLException {
+        String query = "SELECT email FROM users WHERE email = ANY(?)";
+        Connection connection = DBConnection.getCurrent().getConnection();
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            Set<String> taken = new HashSet<>();
+            statement.setArray(
+                1,
+                connection.createArrayOf("text", emails.toArray())
+            );
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    taken.add(rs.getString(1));
+                }
+            }
+
+            return taken;
+        }
+    }
+
+    /**
+     * Insert new users in a single statement, skipping any whose email
+     * address is already taken rather than failing. The users are inserted
+     * directly, not through the UnitOfWork, and no models are created for
+     * them.
+     *
+     * @param users          users to insert
+     * @param passwordHashes hashed password of each user, in the same order
+     * @return the email addresses of the users which were inserted
+     * @throws SQLException if unable to insert the users
+     */
+    public Set<String> insertAllIgnoringConflicts(
+        List<CreateUserDTO> users,
+        List<String> passwordHashes
+    ) throws SQLException {
+        String query = "INSERT INTO users " +
+            "(id, email, name, password_hash, type) " +
+            "SELECT * FROM unnest(?::uuid[], ?::text[], ?::text[], " +
+            "?::text[], ?::text[]) ON CONFLICT DO NOTHING RETURNING email";
+        Connection connection = DBConnection.getCurrent().getConnection();
+        Object[] ids = new Object[users.size()];
+        Object[] emails = new Object[users.size()];
+        Object[] names = new Object[users.size()];
+        Object[] types = new Object[users.size()];
+
+        for (int i = 0; i < users.size(); i++) {
+            CreateUserDTO user = users.get(i);
+            ids[i] = UUID.randomUUID();
+            emails[i] = user.email;
+            names[i] = user.name;
+            types[i] = user.type.toUpperCase();
+        }
+
+        try (
+            PreparedStatement statement = connection.prepareStatement(query);
+        ) {
+            Set<String> inserted = new HashSet<>();
+            statement.setArray(1, connection.createArrayOf("uuid", ids));
+            statement.setArray(2, connection.createArrayOf("text", emails));
+            statement.setArray(3, connection.createArrayOf("text", names));
+            statement.setArray(
+                4,
+                connection.createArrayOf("text", passwordHashes.toArray())
+            );
+            statement.setArray(5, connection.createArrayOf("text", types));
+
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    inserted.add(rs.getString(1));
+                }
+            }
+
+            return inserted;
+        }
+    }
+
     @Override
-    protected User load(ResultSet rs) throws SQLException {
-        String type = rs.getString("type");
+    protected User create(UUID id, Row row) throws SQLException {
+        String type = row.getString(TYPE);
 
-        Mapper<?> mapper;
+        Mapper<? extends User> mapper;
 
         if (type.equals(Student.TYPE)) {
-            mapper = new StudentMapper();
+            mapper = MapperRegistry.get(Student.class);
         } else if (type.equals(Instructor.TYPE)) {
-            mapper = new InstructorMapper();
+            mapper = MapperRegistry.get(Instructor.class);
         } else if (type.equals(Administrator.TYPE)) {
-            mapper = new AdministratorMapper();
+            mapper = MapperRegistry.get(Administrator.class);
         } else {
             throw new RuntimeException();
         }
 
-        return (User) mapper.load(rs);
+        return mapper.create(id, row);
     }
 
     @Override
     protected String getType() {
         return "";
     }
+
 }
@@ -5,7 +5,6 @@ import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.StudentMapper;
 import com.ekzameno.ekzameno.mappers.SubjectMapper;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
@@ -83,9 +82,9 @@ public class Enrolment extends Model {
      * @param studentId ID of the associated student
      */
     public void setStudentId(UUID studentId) {
+        markDirty("studentId", this.studentId, studentId);
         this.studentId = studentId;
         this.student = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -94,9 +93,9 @@ public class Enrolment extends Model {
      * @param subjectId ID of the associated subject
      */
     public void setSubjectId(UUID subjectId) {
+        markDirty("subjectId", this.subjectId, subjectId);
         this.subjectId = subjectId;
         this.student = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -105,9 +104,9 @@ public class Enrolment extends Model {
      * @param student the associated student
      */
     public void setStudent(Student student) {
+        markDirty("studentId", this.studentId, student.getId());
         this.student = student;
         this.studentId = student.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -116,9 +115,9 @@ public class Enrolment extends Model {
      * @param subject the associated subject
      */
     public void setSubject(Subject subject) {
+        markDirty("subjectId", this.subjectId, subject.getId());
         this.subject = subject;
         this.subjectId = subject.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
@@ -8,7 +8,6 @@ import com.ekzameno.ekzameno.mappers.SubjectMapper;
 import com.ekzameno.ekzameno.proxies.ExamSubmissionExamProxyList;
 import com.ekzameno.ekzameno.proxies.ProxyList;
 import com.ekzameno.ekzameno.proxies.QuestionProxyList;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.github.slugify.Slugify;
 
@@ -127,8 +126,8 @@ public class Exam extends Model {
      * @param name name of the Exam
      */
     public void setName(String name) {
+        markDirty("name", this.name, name);
         this.name = name;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -137,8 +136,8 @@ public class Exam extends Model {
      * @param description name of the Exam
      */
     public void setDescription(String description) {
+        markDirty("description", this.description, description);
         this.description = description;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -147,8 +146,8 @@ public class Exam extends Model {
      * @param startTime publish date of the Exam
      */
     public void setStartTime(Date startTime) {
+        markDirty("startTime", dateRange.getFromDate(), startTime);
         dateRange.setFromDate(startTime);
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -157,8 +156,8 @@ public class Exam extends Model {
      * @param finishTime close date of the Exam
      */
     public void setFinishTime(Date finishTime) {
+        markDirty("finishTime", dateRange.getToDate(), finishTime);
         dateRange.setToDate(finishTime);
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     public UUID getSubjectId() {
@@ -184,9 +183,9 @@ public class Exam extends Model {
      * @param subjectId ID of the related subject
      */
     public void setSubjectId(UUID subjectId) {
+        markDirty("subjectId", this.subjectId, subjectId);
         this.subjectId = subjectId;
         this.subject = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -195,9 +194,9 @@ public class Exam extends Model {
      * @param subject the related subject.
      */
     public void setSubject(Subject subject) {
+        markDirty("subjectId", this.subjectId, subject.getId());
         this.subject = subject;
         this.subjectId = subject.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
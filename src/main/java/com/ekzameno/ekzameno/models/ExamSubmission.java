@@ -8,7 +8,6 @@ import com.ekzameno.ekzameno.mappers.ExamMapper;
 import com.ekzameno.ekzameno.mappers.StudentMapper;
 import com.ekzameno.ekzameno.proxies.ProxyList;
 import com.ekzameno.ekzameno.proxies.QuestionSubmissionExamSubmissionProxyList;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -83,8 +82,8 @@ public class ExamSubmission extends Model {
      * @param marks number of marks earned
      */
     public void setMarks(Integer marks) {
+        markDirty("marks", this.marks, marks);
         this.marks = marks;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     public UUID getStudentId() {
@@ -127,9 +126,9 @@ public class ExamSubmission extends Model {
      * @param studentId ID of the related student
      */
     public void setStudentId(UUID studentId) {
+        markDirty("studentId", this.studentId, studentId);
         this.studentId = studentId;
         this.student = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -138,9 +137,9 @@ public class ExamSubmission extends Model {
      * @param examId ID of the related exam
      */
     public void setExamId(UUID examId) {
+        markDirty("examId", this.examId, examId);
         this.examId = examId;
         this.exam = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -149,9 +148,9 @@ public class ExamSubmission extends Model {
      * @param student related student
      */
     public void setStudent(Student student) {
+        markDirty("studentId", this.studentId, student.getId());
         this.student = student;
         this.studentId = student.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -160,9 +159,9 @@ public class ExamSubmission extends Model {
      * @param exam related exam
      */
     public void setExam(Exam exam) {
+        markDirty("examId", this.examId, exam.getId());
         this.exam = exam;
-        this.examId = student.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
+        this.examId = exam.getId();
     }
 
     @Override
@@ -5,7 +5,6 @@ import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.InstructorMapper;
 import com.ekzameno.ekzameno.mappers.SubjectMapper;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
@@ -84,9 +83,9 @@ public class InstructorSubject extends Model {
      * @param instructorId ID of the associated instructor
      */
     public void setInstructorId(UUID instructorId) {
+        markDirty("instructorId", this.instructorId, instructorId);
         this.instructorId = instructorId;
         this.instructor = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -96,9 +95,9 @@ public class InstructorSubject extends Model {
      * @param subjectId ID of the associated subject
      */
     public void setSubjectId(UUID subjectId) {
+        markDirty("subjectId", this.subjectId, subjectId);
         this.subjectId = subjectId;
         this.instructor = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -107,9 +106,9 @@ public class InstructorSubject extends Model {
      * @param instructor the associated instructor
      */
     public void setInstructor(Instructor instructor) {
+        markDirty("instructorId", this.instructorId, instructor.getId());
         this.instructor = instructor;
         this.instructorId = instructor.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -118,9 +117,9 @@ public class InstructorSubject extends Model {
      * @param subject the associated subject
      */
     public void setSubject(Subject subject) {
+        markDirty("subjectId", this.subjectId, subject.getId());
         this.subject = subject;
         this.subjectId = subject.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
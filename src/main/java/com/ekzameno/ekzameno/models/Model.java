@@ -1,15 +1,24 @@
 package com.ekzameno.ekzameno.models;
 
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.shared.IdentityMap;
 import com.ekzameno.ekzameno.shared.UnitOfWork;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Base Model class.
  */
 public abstract class Model {
     private final UUID id;
+    private int version = 0;
+    private final Map<String, Object> originalValues = new HashMap<>();
 
     /**
      * Create a model without an ID (registers as new).
@@ -33,8 +42,81 @@ public abstract class Model {
         return id;
     }
 
+    @JsonIgnore
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Set the version of the row the model was loaded from.
+     *
+     * @param version version of the row
+     */
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public Meta getMeta() {
-        return new Meta(String.valueOf(hashCode()));
+        return new Meta("\"" + version + "\"");
+    }
+
+    /**
+     * Check whether an entity tag matches the current version of the model.
+     *
+     * @param eTag entity tag to check
+     * @return whether the entity tag matches
+     */
+    public boolean hasETag(String eTag) {
+        return getMeta().eTag.equals(eTag);
+    }
+
+    /**
+     * Retrieve the fields that have changed since the model was loaded.
+     *
+     * @return names of the changed fields
+     */
+    @JsonIgnore
+    public Set<String> getDirtyFields() {
+        return Collections.unmodifiableSet(originalValues.keySet());
+    }
+
+    /**
+     * Forget changes once they have been written to the database.
+     */
+    public void markClean() {
+        originalValues.clear();
+    }
+
+    /**
+     * Record a change to a field and register the model as dirty. Setting a
+     * field back to the value it was loaded with undoes the change.
+     *
+     * @param field    name of the field being changed
+     * @param oldValue current value of the field
+     * @param newValue new value of the field
+     */
+    protected void markDirty(String field, Object oldValue, Object newValue) {
+        if (!originalValues.containsKey(field)) {
+            if (isSameValue(oldValue, newValue)) {
+                return;
+            }
+
+            originalValues.put(field, oldValue);
+        } else if (isSameValue(originalValues.get(field), newValue)) {
+            originalValues.remove(field);
+        }
+
+        UnitOfWork.getCurrent().registerDirty(this);
+    }
+
+    private static boolean isSameValue(Object a, Object b) {
+        // Dates loaded from the database are Timestamps, which are never
+        // equal to plain Dates.
+        if (a instanceof Date && b instanceof Date) {
+            return ((Date) a).getTime() == ((Date) b).getTime();
+        }
+
+        return Objects.equals(a, b);
     }
 
     @Override
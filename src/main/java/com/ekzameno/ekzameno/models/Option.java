@@ -4,7 +4,6 @@ import java.sql.SQLException;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.QuestionMapper;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
@@ -61,8 +60,8 @@ public class Option extends Model {
      * @param answer answer to set
      */
     public void setAnswer(String answer) {
+        markDirty("answer", this.answer, answer);
         this.answer = answer;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -71,8 +70,8 @@ public class Option extends Model {
      * @param correct whether the Answer is correct
      */
     public void setCorrect(boolean correct) {
+        markDirty("correct", this.correct, correct);
         this.correct = correct;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -98,9 +97,9 @@ public class Option extends Model {
      * @param question relation question
      */
     public void setQuestion(Question question) {
+        markDirty("questionId", this.questionId, question.getId());
         this.question = question;
         this.questionId = question.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -109,9 +108,9 @@ public class Option extends Model {
      * @param questionId ID of the related question
      */
     public void setQuestionId(UUID questionId) {
+        markDirty("questionId", this.questionId, questionId);
         this.questionId = questionId;
         this.question = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
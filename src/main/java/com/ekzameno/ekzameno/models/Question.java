@@ -6,7 +6,6 @@ import java.util.UUID;
 import com.ekzameno.ekzameno.mappers.ExamMapper;
 import com.ekzameno.ekzameno.proxies.ProxyList;
 import com.ekzameno.ekzameno.proxies.QuestionSubmissionQuestionProxyList;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
@@ -91,8 +90,8 @@ public abstract class Question extends Model {
      * @param question question to set
      */
     public void setQuestion(String question) {
+        markDirty("question", this.question, question);
         this.question = question;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -102,8 +101,8 @@ public abstract class Question extends Model {
      * @param marks number of marks the question is worth
      */
     public void setMarks(int marks) {
+        markDirty("marks", this.marks, marks);
         this.marks = marks;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     public UUID getExamId() {
@@ -129,9 +128,9 @@ public abstract class Question extends Model {
      * @param examId ID of the related exam
      */
     public void setExamId(UUID examId) {
+        markDirty("examId", this.examId, examId);
         this.examId = examId;
         this.exam = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -140,9 +139,9 @@ public abstract class Question extends Model {
      * @param exam related exam
      */
     public void setExam(Exam exam) {
+        markDirty("examId", this.examId, exam.getId());
         this.exam = exam;
         this.examId = exam.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
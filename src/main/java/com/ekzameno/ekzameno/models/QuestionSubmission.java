@@ -5,7 +5,6 @@ import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.ExamSubmissionMapper;
 import com.ekzameno.ekzameno.mappers.QuestionMapper;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
@@ -78,8 +77,8 @@ public class QuestionSubmission extends Model {
      * @param marks Mark for the question
      */
     public void setMarks(Integer marks) {
+        markDirty("marks", this.marks, marks);
         this.marks = marks;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -89,8 +88,8 @@ public class QuestionSubmission extends Model {
      * @param answer answer for the QuestionSubmission
      */
     public void setAnswer(String answer) {
+        markDirty("answer", this.answer, answer);
         this.answer = answer;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     public UUID getQuestionId() {
@@ -136,9 +135,9 @@ public class QuestionSubmission extends Model {
      * @param questionId ID of the related question
      */
     public void setQuestionId(UUID questionId) {
+        markDirty("questionId", this.questionId, questionId);
         this.questionId = questionId;
         this.question = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -148,9 +147,13 @@ public class QuestionSubmission extends Model {
      * @param examSubmissionId ID of the related exam submission
      */
     public void setExamSubmissionId(UUID examSubmissionId) {
+        markDirty(
+            "examSubmissionId",
+            this.examSubmissionId,
+            examSubmissionId
+        );
         this.examSubmissionId = examSubmissionId;
         this.examSubmission = null;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -159,9 +162,9 @@ public class QuestionSubmission extends Model {
      * @param question the related question
      */
     public void setQuestion(Question question) {
+        markDirty("questionId", this.questionId, question.getId());
         this.question = question;
         this.questionId = question.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -170,9 +173,13 @@ public class QuestionSubmission extends Model {
      * @param examSubmission the related exam submission
      */
     public void setExamSubmission(ExamSubmission examSubmission) {
+        markDirty(
+            "examSubmissionId",
+            this.examSubmissionId,
+            examSubmission.getId()
+        );
         this.examSubmission = examSubmission;
         this.examSubmissionId = examSubmission.getId();
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
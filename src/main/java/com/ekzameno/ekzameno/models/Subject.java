@@ -6,7 +6,6 @@ import com.ekzameno.ekzameno.proxies.ExamProxyList;
 import com.ekzameno.ekzameno.proxies.InstructorProxyList;
 import com.ekzameno.ekzameno.proxies.ProxyList;
 import com.ekzameno.ekzameno.proxies.StudentProxyList;
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.github.slugify.Slugify;
 
@@ -106,8 +105,8 @@ public class Subject extends Model {
      * @param name name of the Subject
      */
     public void setName(String name) {
+        markDirty("name", this.name, name);
         this.name = name;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -116,8 +115,8 @@ public class Subject extends Model {
      * @param description description of the Subject
      */
     public void setDescription(String description) {
+        markDirty("description", this.description, description);
         this.description = description;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
@@ -2,7 +2,6 @@ package com.ekzameno.ekzameno.models;
 
 import java.util.UUID;
 
-import com.ekzameno.ekzameno.shared.UnitOfWork;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
@@ -75,8 +74,8 @@ public abstract class User extends Model {
      * @param email email of the User
      */
     public void setEmail(String email) {
+        markDirty("email", this.email, email);
         this.email = email;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -85,8 +84,8 @@ public abstract class User extends Model {
      * @param name name of the User
      */
     public void setName(String name) {
+        markDirty("name", this.name, name);
         this.name = name;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     /**
@@ -95,8 +94,8 @@ public abstract class User extends Model {
      * @param passwordHash password hash of the user
      */
     public void setPasswordHash(String passwordHash) {
+        markDirty("passwordHash", this.passwordHash, passwordHash);
         this.passwordHash = passwordHash;
-        UnitOfWork.getCurrent().registerDirty(this);
     }
 
     @Override
@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.ExamMapper;
@@ -20,9 +23,9 @@ public class ExamProxyList extends ProxyList<Exam> {
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new ExamMapper().findAllForSubject(id);
-        }
+    protected Map<UUID, List<Exam>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new ExamMapper().findAllForSubjects(ids);
     }
 }
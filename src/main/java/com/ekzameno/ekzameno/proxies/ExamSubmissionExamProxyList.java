@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.ExamSubmissionMapper;
@@ -20,9 +23,9 @@ public class ExamSubmissionExamProxyList extends ProxyList<ExamSubmission> {
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            new ExamSubmissionMapper().findAllForExam(id);
-        }
+    protected Map<UUID, List<ExamSubmission>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new ExamSubmissionMapper().findAllForExams(ids);
     }
 }
@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.InstructorMapper;
@@ -21,10 +24,10 @@ public class InstructorProxyList extends ProxyList<Instructor> {
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new InstructorMapper().findAllForSubject(id);
-        }
+    protected Map<UUID, List<Instructor>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new InstructorMapper().findAllForSubjects(ids);
     }
 
     @Override
@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.OptionMapper;
@@ -20,9 +23,9 @@ public class OptionProxyList extends ProxyList<Option> {
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new OptionMapper().findAllForQuestion(id);
-        }
+    protected Map<UUID, List<Option>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new OptionMapper().findAllForQuestions(ids);
     }
 }
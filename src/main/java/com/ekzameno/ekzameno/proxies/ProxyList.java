@@ -1,14 +1,28 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.Mapper;
 import com.ekzameno.ekzameno.models.Model;
+import com.ekzameno.ekzameno.shared.IdentityMap;
 
 /**
  * A Proxy around a list of models.
+ *
+ * <p>
+ * Uninitialised proxies are registered with the current {@link IdentityMap}.
+ * When one of them is first accessed, the relation is loaded for every
+ * registered proxy of the same type in a single query, so walking a relation
+ * across many models does not cost a query per model.
+ * </p>
+ *
  * @param <T> type of the models
  */
 public abstract class ProxyList<T extends Model> {
@@ -22,6 +36,7 @@ public abstract class ProxyList<T extends Model> {
      */
     public ProxyList(UUID id) {
         this.id = id;
+        IdentityMap.getCurrent().putProxy(this);
     }
 
     /**
@@ -91,5 +106,61 @@ public abstract class ProxyList<T extends Model> {
         return models;
     }
 
-    protected abstract void init() throws SQLException;
+    /**
+     * Fill the list with models that have already been loaded, such as by a
+     * fetch plan, so that it does not need to query for them.
+     *
+     * @param models models in the list
+     */
+    public void populate(List<T> models) {
+        this.models = new ArrayList<>(models);
+    }
+
+    /**
+     * Load the models for this proxy, along with those of every other
+     * uninitialised proxy of the same type in the current IdentityMap.
+     *
+     * @throws SQLException if unable to retrieve the models
+     */
+    @SuppressWarnings("unchecked")
+    protected void init() throws SQLException {
+        if (models != null) {
+            return;
+        }
+
+        List<ProxyList<T>> proxies = new ArrayList<>();
+        proxies.add(this);
+
+        for (ProxyList<?> proxy : IdentityMap.getCurrent()
+            .removeProxies(getClass())) {
+            if (proxy != this && proxy.models == null) {
+                proxies.add((ProxyList<T>) proxy);
+            }
+        }
+
+        Set<UUID> ids = new LinkedHashSet<>();
+
+        for (ProxyList<T> proxy : proxies) {
+            ids.add(proxy.id);
+        }
+
+        Map<UUID, List<T>> loaded = loadAll(ids);
+
+        for (ProxyList<T> proxy : proxies) {
+            proxy.models = new ArrayList<>(
+                loaded.getOrDefault(proxy.id, List.of())
+            );
+        }
+    }
+
+    /**
+     * Retrieve the models for each of the given IDs in a single query.
+     *
+     * @param ids IDs of the models the lists belong to
+     * @return models keyed by the ID of the model they belong to
+     * @throws SQLException if unable to retrieve the models
+     */
+    protected abstract Map<UUID, List<T>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException;
 }
@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.QuestionMapper;
@@ -20,9 +23,9 @@ public class QuestionProxyList extends ProxyList<Question> {
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new QuestionMapper().findAllForExam(id);
-        }
+    protected Map<UUID, List<Question>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new QuestionMapper().findAllForExams(ids);
     }
 }
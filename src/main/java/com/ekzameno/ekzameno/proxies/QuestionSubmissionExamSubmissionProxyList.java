@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.QuestionSubmissionMapper;
@@ -22,10 +25,9 @@ public class QuestionSubmissionExamSubmissionProxyList
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new QuestionSubmissionMapper()
-                    .findAllForExamSubmission(id);
-        }
+    protected Map<UUID, List<QuestionSubmission>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new QuestionSubmissionMapper().findAllForExamSubmissions(ids);
     }
 }
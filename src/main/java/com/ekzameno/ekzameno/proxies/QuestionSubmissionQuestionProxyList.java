@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.QuestionSubmissionMapper;
@@ -21,9 +24,9 @@ public class QuestionSubmissionQuestionProxyList
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new QuestionSubmissionMapper().findAllForQuestion(id);
-        }
+    protected Map<UUID, List<QuestionSubmission>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new QuestionSubmissionMapper().findAllForQuestions(ids);
     }
 }
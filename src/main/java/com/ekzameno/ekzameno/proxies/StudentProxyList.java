@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.EnrolmentMapper;
@@ -21,10 +24,10 @@ public class StudentProxyList extends ProxyList<Student> {
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new StudentMapper().findAllForSubject(id);
-        }
+    protected Map<UUID, List<Student>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new StudentMapper().findAllForSubjects(ids);
     }
 
     @Override
@@ -1,6 +1,9 @@
 package com.ekzameno.ekzameno.proxies;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.mappers.InstructorSubjectMapper;
@@ -21,10 +24,10 @@ public class SubjectInstructorProxyList extends ProxyList<Subject> {
     }
 
     @Override
-    protected void init() throws SQLException {
-        if (models == null) {
-            models = new SubjectMapper().findAllForInstructor(id);
-        }
+    protected Map<UUID, List<Subject>> loadAll(
+        Collection<UUID> ids
+    ) throws SQLException {
+        return new SubjectMapper().findAllForInstructors(ids);
     }
 
     @Override
@@ -1,42 +1,144 @@
 package com.ekzameno.ekzameno.services;
 
+import java.security.Key;
 import java.sql.SQLException;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 import javax.ws.rs.InternalServerErrorException;
 
 import com.ekzameno.ekzameno.mappers.UserMapper;
 import com.ekzameno.ekzameno.models.User;
-import com.ekzameno.ekzameno.shared.DBConnection;
-import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.Env;
+import com.ekzameno.ekzameno.shared.PasswordHasher;
+import com.ekzameno.ekzameno.shared.Transaction;
+import com.ekzameno.ekzameno.shared.UnitOfWork;
 
-import at.favre.lib.crypto.bcrypt.BCrypt;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
 
 /**
  * Service to handle authentication.
  */
 public class AuthService {
+    public static final String ROLE_CLAIM = "role";
+    private static final Key key = Keys.hmacShaKeyFor(
+        Decoders.BASE64.decode(
+            System.getenv(
+                "JWT_SECRET"
+            )
+        )
+    );
+    // Parsers are immutable, so one is shared by every request.
+    private static final JwtParser parser = Jwts
+        .parserBuilder()
+        .setSigningKey(key)
+        .build();
+    private static final long ttl = Env.getLong("JWT_TTL_MS", 86400000);
+    private static final boolean stateless =
+        Boolean.parseBoolean(System.getenv("JWT_STATELESS"));
+
     private final UserMapper userMapper = new UserMapper();
 
     /**
-     * Authenticate a user.
+     * Authenticate a user without blocking the current thread while the
+     * password is verified. The current transaction is handed over to the
+     * thread which finishes the request. Passwords hashed with an outdated
+     * cost are rehashed and saved.
      *
      * @param email email of the user to validate
      * @param password password of the user to validate
-     * @return whether the user is authenticated
+     * @return future completed with the user if they are authenticated, or
+     *         null otherwise
      */
-    public User authenticateUser(String email, String password) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+    public CompletableFuture<User> authenticateUser(
+        String email,
+        String password
+    ) {
+        try {
             User user = userMapper.findByEmail(email);
-            boolean authenticated = BCrypt
-                .verifyer()
-                .verify(password.toCharArray(), user.getPasswordHash())
-                .verified;
-            return authenticated ? user : null;
+            Transaction transaction = Transaction.getCurrent();
+            transaction.detach();
+
+            return PasswordHasher.getInstance()
+                .verify(password, user.getPasswordHash())
+                .thenApply(verification -> {
+                    if (!verification.isVerified()) {
+                        return null;
+                    }
+
+                    if (verification.getRehash() != null) {
+                        transaction.attach();
+                        updatePasswordHash(user, verification.getRehash());
+                    }
+
+                    return user;
+                });
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
+        }
+    }
+
+    /**
+     * Issue a signed token for a user, carrying their ID, role and when the
+     * token expires.
+     *
+     * @param user user to issue the token for
+     * @return the signed token
+     */
+    public String issueToken(User user) {
+        Date now = new Date();
+
+        return Jwts
+            .builder()
+            .setSubject(user.getId().toString())
+            .claim(ROLE_CLAIM, user.getType())
+            .setIssuedAt(now)
+            .setExpiration(new Date(now.getTime() + ttl))
+            .signWith(key)
+            .compact();
+    }
+
+    /**
+     * Verify a token and retrieve its claims.
+     *
+     * @param jwt token to verify
+     * @return claims of the token
+     * @throws JwtException if the token is invalid or has expired
+     */
+    public Claims parseToken(String jwt) throws JwtException {
+        return parser.parseClaimsJws(jwt).getBody();
+    }
+
+    /**
+     * Whether requests should be authenticated from the claims of their
+     * token alone, without looking the user up.
+     *
+     * @return true if authentication is stateless, false otherwise
+     */
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    private void updatePasswordHash(User user, String passwordHash) {
+        // Failing to save the new hash should not stop the user signing in,
+        // since their password will be rehashed next time instead.
+        try {
+            user.setPasswordHash(passwordHash);
+            UnitOfWork.getCurrent().commit();
+        } catch (SQLException | RuntimeException e) {
+            try {
+                UnitOfWork.getCurrent().rollback();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+
+            e.printStackTrace();
         }
     }
 }
@@ -1,6 +1,7 @@
 package com.ekzameno.ekzameno.services;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
@@ -9,15 +10,23 @@ import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.NotFoundException;
 
 import com.ekzameno.ekzameno.dtos.CreateQuestionSubmissionDTO;
+import com.ekzameno.ekzameno.dtos.ExamPaperDTO;
+import com.ekzameno.ekzameno.dtos.OptionPaperDTO;
+import com.ekzameno.ekzameno.dtos.QuestionPaperDTO;
 import com.ekzameno.ekzameno.exceptions.PreconditionFailedException;
+import com.ekzameno.ekzameno.mappers.EntityCache;
 import com.ekzameno.ekzameno.mappers.ExamMapper;
 import com.ekzameno.ekzameno.mappers.ExamSubmissionMapper;
 import com.ekzameno.ekzameno.models.DateRange;
 import com.ekzameno.ekzameno.models.Exam;
 import com.ekzameno.ekzameno.models.ExamSubmission;
+import com.ekzameno.ekzameno.models.MultipleChoiceQuestion;
+import com.ekzameno.ekzameno.models.Option;
+import com.ekzameno.ekzameno.models.Question;
 import com.ekzameno.ekzameno.models.QuestionSubmission;
-import com.ekzameno.ekzameno.shared.DBConnection;
-import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.Page;
+import com.ekzameno.ekzameno.shared.ResponseCache;
+import com.ekzameno.ekzameno.shared.SingleFlight;
 import com.ekzameno.ekzameno.shared.UnitOfWork;
 
 /**
@@ -35,13 +44,114 @@ public class ExamService {
      * @return exam
      */
     public Exam getExam(String slug) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             return examMapper.findBySlug(slug);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
+        }
+    }
+
+    /**
+     * Fetches the paper for an exam with a given slug: the exam, its
+     * questions and their options.
+     *
+     * @param slug        exam's slug
+     * @param withAnswers whether to include which options are correct
+     * @return encoded paper for the exam
+     */
+    public ResponseCache.Entry getExamPaper(String slug, boolean withAnswers) {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        String key = "paper:" + slug + ":" + withAnswers;
+        ResponseCache.Entry entry = responseCache.get(key);
+
+        if (entry != null) {
+            return entry;
+        }
+
+        try {
+            return SingleFlight.getInstance().execute(
+                key,
+                () -> loadExamPaper(key, slug, withAnswers)
+            );
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+    }
+
+    private ResponseCache.Entry loadExamPaper(
+        String key,
+        String slug,
+        boolean withAnswers
+    ) throws SQLException {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        long generation = responseCache.getGeneration();
+        Exam exam = examMapper.findBySlug(slug, ExamMapper.Fetch.OPTIONS);
+        List<QuestionPaperDTO> questions = new ArrayList<>();
+        List<UUID> tags = new ArrayList<>();
+        tags.add(exam.getId());
+
+        for (Question question : exam.getQuestions().getRawList()) {
+            List<OptionPaperDTO> options = null;
+            tags.add(question.getId());
+
+            if (question instanceof MultipleChoiceQuestion) {
+                options = new ArrayList<>();
+
+                for (Option option : ((MultipleChoiceQuestion) question)
+                    .getOptions()
+                    .getRawList()) {
+                    options.add(new OptionPaperDTO(option, withAnswers));
+                    tags.add(option.getId());
+                }
+            }
+
+            questions.add(new QuestionPaperDTO(question, options));
+        }
+
+        return responseCache.put(
+            key,
+            new ExamPaperDTO(exam, questions),
+            tags,
+            generation
+        );
+    }
+
+    /**
+     * Load the paper for an exam with a given slug into the response cache
+     * for both students and instructors, replacing any cached copies.
+     *
+     * @param slug exam's slug
+     */
+    public void warmExamPaper(String slug) {
+        try {
+            for (boolean withAnswers : new boolean[] { false, true }) {
+                String key = "paper:" + slug + ":" + withAnswers;
+                SingleFlight.getInstance().execute(
+                    key,
+                    () -> loadExamPaper(key, slug, withAnswers)
+                );
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+    }
+
+    /**
+     * Retrieve the exams which will start within a given number of
+     * milliseconds.
+     *
+     * @param window milliseconds from now to look ahead
+     * @return exams starting within the window
+     */
+    public List<Exam> getExamsStartingWithin(long window) {
+        try {
+            return examMapper.findAllStartingWithin(window);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException();
         }
     }
 
@@ -52,13 +162,11 @@ public class ExamService {
      * @return all exams for the subject
      */
     public List<Exam> getExamsForSubject(UUID subjectId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             return examMapper.findAllForSubject(subjectId);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
 
@@ -69,13 +177,11 @@ public class ExamService {
      * @return all exams for the subject
      */
     public List<Exam> getPublishedExamsForSubject(UUID subjectId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             return examMapper.findAllPublishedExams(subjectId);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
 
@@ -96,9 +202,12 @@ public class ExamService {
         Date finishTime,
         UUID subjectId
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             DateRange dateRange = new DateRange(startTime, finishTime);
             Exam exam = new Exam(name, description, dateRange, subjectId);
+            // The new exam is not in any cached schedule yet, but the
+            // subject's cached schedule is now out of date.
+            EntityCache.invalidate(List.of(subjectId));
             UnitOfWork.getCurrent().commit();
             return exam;
         } catch (SQLException e) {
@@ -132,10 +241,10 @@ public class ExamService {
         UUID examId,
         String eTag
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            Exam exam = examMapper.findById(examId, true);
+        try {
+            Exam exam = examMapper.findById(examId);
 
-            if (!String.valueOf(exam.hashCode()).equals(eTag)) {
+            if (!exam.hasETag(eTag)) {
                 throw new PreconditionFailedException();
             }
 
@@ -165,7 +274,7 @@ public class ExamService {
     public void deleteExam(
         UUID examId
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             examMapper.deleteById(examId);
             UnitOfWork.getCurrent().commit();
         } catch (SQLException e) {
@@ -195,7 +304,7 @@ public class ExamService {
         Integer marks,
         List<CreateQuestionSubmissionDTO> answers
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             ExamSubmission examSubmission = new ExamSubmission(
                 marks,
                 studentId,
@@ -226,19 +335,23 @@ public class ExamService {
     }
 
     /**
-     * Retrieve all submissions for a given exam.
+     * Retrieve a page of submissions for a given exam.
      *
      * @param examId ID of the exam to retrieve submissions for
-     * @return submissions for the specified exam
+     * @param after  ID to continue after, or null to start from the beginning
+     * @param limit  maximum number of submissions to return
+     * @return page of submissions for the specified exam
      */
-    public List<ExamSubmission> getSubmissions(UUID examId) {
+    public Page<ExamSubmission> getSubmissions(
+        UUID examId,
+        UUID after,
+        int limit
+    ) {
         try {
-            return examSubmissionMapper.findAllForExam(examId);
+            return examSubmissionMapper.findPageForExam(examId, after, limit);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
 
@@ -257,8 +370,6 @@ public class ExamService {
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
 
@@ -277,13 +388,11 @@ public class ExamService {
         Integer marks,
         String eTag
     ) {
-        try (
-            DBConnection connection = DBConnection.getCurrent();
-        ) {
+        try {
             ExamSubmission examSubmission =
-                examSubmissionMapper.findByRelationIds(studentId, examId, true);
+                examSubmissionMapper.findByRelationIds(studentId, examId);
 
-            if (!String.valueOf(examSubmission.hashCode()).equals(eTag)) {
+            if (!examSubmission.hasETag(eTag)) {
                 throw new PreconditionFailedException();
             }
 
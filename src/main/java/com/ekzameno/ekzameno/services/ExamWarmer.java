@@ -0,0 +1,190 @@
+package com.ekzameno.ekzameno.services;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.ekzameno.ekzameno.models.Exam;
+import com.ekzameno.ekzameno.models.MultipleChoiceQuestion;
+import com.ekzameno.ekzameno.models.Question;
+import com.ekzameno.ekzameno.shared.Env;
+import com.ekzameno.ekzameno.shared.Transaction;
+
+/**
+ * Background job which periodically loads the papers, questions and options
+ * of exams that are about to start into the response cache, so that the rush
+ * of students at the start of an exam is served from memory.
+ */
+public class ExamWarmer implements Runnable {
+    private static final ExamWarmer instance = new ExamWarmer(
+        Env.getLong("EXAM_WARMUP_INTERVAL_MS", 60000),
+        Env.getLong("EXAM_WARMUP_WINDOW_MS", 600000)
+    );
+
+    private final long interval;
+    private final long window;
+    private final ExamService examService = new ExamService();
+    private final QuestionService questionService = new QuestionService();
+    private final OptionService optionService = new OptionService();
+    private ScheduledExecutorService executor = null;
+    private long runs = 0;
+    private long warmed = 0;
+    private long failures = 0;
+
+    /**
+     * Create a warmer.
+     *
+     * @param interval milliseconds between runs, or 0 to never run
+     * @param window   how many milliseconds before an exam starts to begin
+     *                 warming it
+     */
+    public ExamWarmer(long interval, long window) {
+        this.interval = interval;
+        this.window = window;
+    }
+
+    /**
+     * Retrieve the application wide warmer.
+     *
+     * @return the application wide warmer
+     */
+    public static ExamWarmer getInstance() {
+        return instance;
+    }
+
+    /**
+     * Start warming exams on a background thread.
+     */
+    public synchronized void start() {
+        if (executor != null || interval <= 0) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-warmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(
+            this,
+            0,
+            interval,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Stop warming exams and wait for the current run to finish.
+     */
+    public synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdownNow();
+
+        try {
+            executor.awaitTermination(interval, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        executor = null;
+    }
+
+    @Override
+    public void run() {
+        List<Exam> exams;
+        Transaction transaction = Transaction.begin();
+
+        try {
+            exams = examService.getExamsStartingWithin(window);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            record(0, 1);
+            return;
+        } finally {
+            transaction.close();
+        }
+
+        int count = 0;
+        int failed = 0;
+
+        // Warm each exam in its own transaction so that one failure does not
+        // abort the rest.
+        for (Exam exam : exams) {
+            transaction = Transaction.begin();
+
+            try {
+                warm(exam.getSlug());
+                count++;
+            } catch (SQLException | RuntimeException e) {
+                e.printStackTrace();
+                failed++;
+            } finally {
+                transaction.close();
+            }
+        }
+
+        record(count, failed);
+    }
+
+    /**
+     * Retrieve statistics for the warmer.
+     *
+     * @return point in time statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(runs, warmed, failures);
+    }
+
+    private void warm(String slug) throws SQLException {
+        examService.warmExamPaper(slug);
+
+        // The paper has already loaded the exam's questions and options into
+        // the identity map, so this does not query them again.
+        Exam exam = examService.getExam(slug);
+        questionService.warmQuestionsForExam(exam.getId());
+
+        for (Question question : exam.getQuestions().getRawList()) {
+            if (question instanceof MultipleChoiceQuestion) {
+                optionService.warmOptionsForQuestion(question.getId());
+            }
+        }
+    }
+
+    private synchronized void record(int count, int failed) {
+        runs++;
+        warmed += count;
+        failures += failed;
+    }
+
+    /**
+     * Point in time statistics for the warmer.
+     */
+    public static class Stats {
+        private final long runs;
+        private final long warmed;
+        private final long failures;
+
+        Stats(long runs, long warmed, long failures) {
+            this.runs = runs;
+            this.warmed = warmed;
+            this.failures = failures;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getWarmed() {
+            return warmed;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+    }
+}
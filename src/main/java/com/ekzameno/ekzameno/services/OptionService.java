@@ -1,16 +1,18 @@
 package com.ekzameno.ekzameno.services;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 import javax.ws.rs.InternalServerErrorException;
 
 import com.ekzameno.ekzameno.exceptions.PreconditionFailedException;
+import com.ekzameno.ekzameno.mappers.EntityCache;
 import com.ekzameno.ekzameno.mappers.OptionMapper;
 import com.ekzameno.ekzameno.models.Option;
-import com.ekzameno.ekzameno.shared.DBConnection;
-import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.ResponseCache;
+import com.ekzameno.ekzameno.shared.SingleFlight;
 import com.ekzameno.ekzameno.shared.UnitOfWork;
 
 /**
@@ -32,8 +34,11 @@ public class OptionService {
         boolean correct,
         UUID questionId
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             Option option = new Option(answer, correct, questionId);
+            // The new option is not in any cached response yet, but the
+            // responses listing the question's options are now out of date.
+            EntityCache.invalidate(List.of(questionId));
             UnitOfWork.getCurrent().commit();
             return option;
         } catch (SQLException e) {
@@ -63,10 +68,10 @@ public class OptionService {
         boolean correct,
         String eTag
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            Option option = optionMapper.findById(optionId, true);
+        try {
+            Option option = optionMapper.findById(optionId);
 
-            if (!String.valueOf(option.hashCode()).equals(eTag)) {
+            if (!option.hasETag(eTag)) {
                 throw new PreconditionFailedException();
             }
 
@@ -92,7 +97,7 @@ public class OptionService {
      * @param optionId ID of the option to update
      */
     public void deleteOption(UUID optionId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             optionMapper.deleteById(optionId);
             UnitOfWork.getCurrent().commit();
         } catch (SQLException e) {
@@ -111,16 +116,61 @@ public class OptionService {
      * Get options for a given question.
      *
      * @param questionId ID of the question to retrieve options for
-     * @return options
+     * @return encoded options
      */
-    public List<Option> getOptionsForQuestion(UUID questionId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            return optionMapper.findAllForQuestion(questionId);
+    public ResponseCache.Entry getOptionsForQuestion(UUID questionId) {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        String key = "options:" + questionId;
+        ResponseCache.Entry entry = responseCache.get(key);
+
+        if (entry != null) {
+            return entry;
+        }
+
+        try {
+            return SingleFlight.getInstance().execute(
+                key,
+                () -> loadOptionsForQuestion(key, questionId)
+            );
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+    }
+
+    /**
+     * Load the options for a given question into the response cache,
+     * replacing any cached copy.
+     *
+     * @param questionId ID of the question to load options for
+     */
+    public void warmOptionsForQuestion(UUID questionId) {
+        try {
+            String key = "options:" + questionId;
+            SingleFlight.getInstance().execute(
+                key,
+                () -> loadOptionsForQuestion(key, questionId)
+            );
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
+
+    private ResponseCache.Entry loadOptionsForQuestion(
+        String key,
+        UUID questionId
+    ) throws SQLException {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        long generation = responseCache.getGeneration();
+        List<Option> options = optionMapper.findAllForQuestion(questionId);
+        List<UUID> tags = new ArrayList<>();
+        tags.add(questionId);
+
+        for (Option option : options) {
+            tags.add(option.getId());
+        }
+
+        return responseCache.put(key, options, tags, generation);
+    }
 }
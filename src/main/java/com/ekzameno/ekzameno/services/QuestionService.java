@@ -1,6 +1,7 @@
 package com.ekzameno.ekzameno.services;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -9,6 +10,7 @@ import javax.ws.rs.InternalServerErrorException;
 
 import com.ekzameno.ekzameno.dtos.CreateOptionDTO;
 import com.ekzameno.ekzameno.exceptions.PreconditionFailedException;
+import com.ekzameno.ekzameno.mappers.EntityCache;
 import com.ekzameno.ekzameno.mappers.QuestionMapper;
 import com.ekzameno.ekzameno.mappers.QuestionSubmissionMapper;
 import com.ekzameno.ekzameno.models.MultipleChoiceQuestion;
@@ -16,8 +18,8 @@ import com.ekzameno.ekzameno.models.Option;
 import com.ekzameno.ekzameno.models.Question;
 import com.ekzameno.ekzameno.models.QuestionSubmission;
 import com.ekzameno.ekzameno.models.ShortAnswerQuestion;
-import com.ekzameno.ekzameno.shared.DBConnection;
-import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.ResponseCache;
+import com.ekzameno.ekzameno.shared.SingleFlight;
 import com.ekzameno.ekzameno.shared.UnitOfWork;
 
 /**
@@ -45,7 +47,7 @@ public class QuestionService {
         String type,
         List<CreateOptionDTO> options
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             Question q;
 
             if (type.toUpperCase().equals(MultipleChoiceQuestion.TYPE)) {
@@ -62,6 +64,9 @@ public class QuestionService {
                 throw new BadRequestException();
             }
 
+            // The new question is not in any cached response yet, but the
+            // responses listing the exam's questions are now out of date.
+            EntityCache.invalidate(List.of(examId));
             UnitOfWork.getCurrent().commit();
             return q;
         } catch (SQLException e) {
@@ -91,10 +96,10 @@ public class QuestionService {
         UUID questionId,
         String eTag
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            Question questionModel = questionMapper.findById(questionId, true);
+        try {
+            Question questionModel = questionMapper.findById(questionId);
 
-            if (!String.valueOf(questionModel.hashCode()).equals(eTag)) {
+            if (!questionModel.hasETag(eTag)) {
                 throw new PreconditionFailedException();
             }
 
@@ -122,7 +127,7 @@ public class QuestionService {
     public void deleteQuestion(
         UUID questionId
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             questionMapper.deleteById(questionId);
             UnitOfWork.getCurrent().commit();
         } catch (SQLException e) {
@@ -141,16 +146,61 @@ public class QuestionService {
      * Retrieve questions for a given exam.
      *
      * @param examId ID of the exam to retrieve questions for
-     * @return questions for the given exam
+     * @return encoded questions for the given exam
      */
-    public List<Question> getQuestionsForExam(UUID examId) {
+    public ResponseCache.Entry getQuestionsForExam(UUID examId) {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        String key = "questions:" + examId;
+        ResponseCache.Entry entry = responseCache.get(key);
+
+        if (entry != null) {
+            return entry;
+        }
+
         try {
-            return questionMapper.findAllForExam(examId);
+            return SingleFlight.getInstance().execute(
+                key,
+                () -> loadQuestionsForExam(key, examId)
+            );
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+    }
+
+    private ResponseCache.Entry loadQuestionsForExam(
+        String key,
+        UUID examId
+    ) throws SQLException {
+        ResponseCache responseCache = ResponseCache.getInstance();
+        long generation = responseCache.getGeneration();
+        List<Question> questions = questionMapper.findAllForExam(examId);
+        List<UUID> tags = new ArrayList<>();
+        tags.add(examId);
+
+        for (Question question : questions) {
+            tags.add(question.getId());
+        }
+
+        return responseCache.put(key, questions, tags, generation);
+    }
+
+    /**
+     * Load the questions for a given exam into the response cache, replacing
+     * any cached copy.
+     *
+     * @param examId ID of the exam to load questions for
+     */
+    public void warmQuestionsForExam(UUID examId) {
+        try {
+            String key = "questions:" + examId;
+            SingleFlight.getInstance().execute(
+                key,
+                () -> loadQuestionsForExam(key, examId)
+            );
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
 
@@ -170,7 +220,7 @@ public class QuestionService {
         String answer,
         Integer marks
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             QuestionSubmission questionSubmission = new QuestionSubmission(
                 answer,
                 questionId,
@@ -208,11 +258,11 @@ public class QuestionService {
         Integer marks,
         String eTag
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             QuestionSubmission questionSubmission = questionSubmissionMapper
                 .findByRelationIds(questionId, examSubmissionId);
 
-            if (!String.valueOf(questionSubmission.hashCode()).equals(eTag)) {
+            if (!questionSubmission.hasETag(eTag)) {
                 throw new PreconditionFailedException();
             }
 
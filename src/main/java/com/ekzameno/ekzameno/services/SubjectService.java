@@ -2,12 +2,18 @@ package com.ekzameno.ekzameno.services;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.NotFoundException;
 
+import com.ekzameno.ekzameno.dtos.AddUsersToSubjectResultDTO;
+import com.ekzameno.ekzameno.dtos.SyncStudentsResultDTO;
 import com.ekzameno.ekzameno.exceptions.PreconditionFailedException;
 import com.ekzameno.ekzameno.mappers.EnrolmentMapper;
 import com.ekzameno.ekzameno.mappers.InstructorSubjectMapper;
@@ -15,8 +21,7 @@ import com.ekzameno.ekzameno.mappers.SubjectMapper;
 import com.ekzameno.ekzameno.models.Enrolment;
 import com.ekzameno.ekzameno.models.InstructorSubject;
 import com.ekzameno.ekzameno.models.Subject;
-import com.ekzameno.ekzameno.shared.DBConnection;
-import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.Page;
 import com.ekzameno.ekzameno.shared.UnitOfWork;
 
 /**
@@ -29,18 +34,18 @@ public class SubjectService {
         new InstructorSubjectMapper();
 
     /**
-     * Retrieve all subjects.
+     * Retrieve a page of all subjects.
      *
-     * @return all subjects
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of subjects to return
+     * @return page of subjects
      */
-    public List<Subject> getSubjects() {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            return subjectMapper.findAll();
+    public Page<Subject> getSubjects(UUID after, int limit) {
+        try {
+            return subjectMapper.findPage(after, limit);
         } catch (SQLException e) {
             e.printStackTrace();
-            return new ArrayList<>();
-        } finally {
-            IdentityMap.reset();
+            return new Page<>(new ArrayList<>(), null);
         }
     }
 
@@ -52,46 +57,52 @@ public class SubjectService {
      */
     public Subject getSubject(String slug)
         throws NotFoundException, InternalServerErrorException {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             return subjectMapper.findBySlug(slug);
         } catch (SQLException e) {
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
 
     /**
-     * Retrieve subjects for an instructor.
+     * Retrieve a page of subjects for an instructor.
      *
-     * @param id instructor's id.
-     * @return list of subjects the instructor teaches.
+     * @param id    instructor's id.
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of subjects to return
+     * @return page of subjects the instructor teaches.
      */
-    public List<Subject> getSubjectsForInstructor(UUID id) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            return subjectMapper.findAllForInstructor(id);
+    public Page<Subject> getSubjectsForInstructor(
+        UUID id,
+        UUID after,
+        int limit
+    ) {
+        try {
+            return subjectMapper.findPageForInstructor(id, after, limit);
         } catch (SQLException e) {
             e.printStackTrace();
-            return new ArrayList<>();
-        } finally {
-            IdentityMap.reset();
+            return new Page<>(new ArrayList<>(), null);
         }
     }
 
     /**
-     * Retrieve subjects for a student.
+     * Retrieve a page of subjects for a student.
      *
-     * @param id student's id.
-     * @return list of subjects for which the user has access.
+     * @param id    student's id.
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of subjects to return
+     * @return page of subjects for which the user has access.
      */
-    public List<Subject> getSubjectsForStudent(UUID id) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            return subjectMapper.findAllForStudent(id);
+    public Page<Subject> getSubjectsForStudent(
+        UUID id,
+        UUID after,
+        int limit
+    ) {
+        try {
+            return subjectMapper.findPageForStudent(id, after, limit);
         } catch (SQLException e) {
             e.printStackTrace();
-            return new ArrayList<>();
-        } finally {
-            IdentityMap.reset();
+            return new Page<>(new ArrayList<>(), null);
         }
     }
 
@@ -104,7 +115,7 @@ public class SubjectService {
      * @throws InternalServerErrorException internal error exception
      */
     public void addInstructorToSubject(UUID subjectId, UUID instructorId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             new InstructorSubject(instructorId, subjectId);
             UnitOfWork.getCurrent().commit();
         } catch (SQLException e) {
@@ -132,7 +143,7 @@ public class SubjectService {
      * @throws InternalServerErrorException internal error exception
      */
     public void addStudentToSubject(UUID subjectId, UUID studentId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             new Enrolment(studentId, subjectId);
             UnitOfWork.getCurrent().commit();
         } catch (SQLException e) {
@@ -151,6 +162,132 @@ public class SubjectService {
         }
     }
 
+    /**
+     * Adds given instructors to given subject in a single statement.
+     *
+     * @param subjectId     subject's id
+     * @param instructorIds instructors' ids
+     * @return which instructors were added, skipped or missing
+     * @throws BadRequestException          bad request exception
+     * @throws NotFoundException            not found exception
+     * @throws InternalServerErrorException internal error exception
+     */
+    public AddUsersToSubjectResultDTO addInstructorsToSubject(
+        UUID subjectId,
+        List<UUID> instructorIds
+    ) {
+        Set<UUID> ids = checkIds(instructorIds);
+
+        try {
+            AddUsersToSubjectResultDTO result = toResult(
+                ids,
+                instructorSubjectMapper.insertAllForSubject(subjectId, ids)
+            );
+            UnitOfWork.getCurrent().commit();
+            return result;
+        } catch (SQLException e) {
+            try {
+                UnitOfWork.getCurrent().rollback();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+
+            if ("23503".equals(e.getSQLState())) {
+                throw new NotFoundException();
+            }
+
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+    }
+
+    /**
+     * Adds given students to given subject in a single statement.
+     *
+     * @param subjectId  subject's id
+     * @param studentIds students' ids
+     * @return which students were added, skipped or missing
+     * @throws BadRequestException          bad request exception
+     * @throws NotFoundException            not found exception
+     * @throws InternalServerErrorException internal error exception
+     */
+    public AddUsersToSubjectResultDTO addStudentsToSubject(
+        UUID subjectId,
+        List<UUID> studentIds
+    ) {
+        Set<UUID> ids = checkIds(studentIds);
+
+        try {
+            AddUsersToSubjectResultDTO result = toResult(
+                ids,
+                enrolmentMapper.insertAllForSubject(subjectId, ids)
+            );
+            UnitOfWork.getCurrent().commit();
+            return result;
+        } catch (SQLException e) {
+            try {
+                UnitOfWork.getCurrent().rollback();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+
+            if ("23503".equals(e.getSQLState())) {
+                throw new NotFoundException();
+            }
+
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+    }
+
+    /**
+     * Replaces the students of given subject with given students, adding and
+     * removing only the difference in a single transaction.
+     *
+     * @param subjectId  subject's id
+     * @param studentIds ids of every student who should be in the subject
+     * @return how many students were added, removed or unchanged, and which
+     *         students do not exist
+     * @throws BadRequestException          bad request exception
+     * @throws NotFoundException            not found exception
+     * @throws InternalServerErrorException internal error exception
+     */
+    public SyncStudentsResultDTO syncStudentsForSubject(
+        UUID subjectId,
+        List<UUID> studentIds
+    ) {
+        Set<UUID> ids = checkIds(studentIds);
+
+        try {
+            // Lock the subject so concurrent syncs are applied one at a time.
+            subjectMapper.lock(subjectId);
+
+            SyncStudentsResultDTO result = new SyncStudentsResultDTO();
+            result.removed = enrolmentMapper.deleteAllForSubjectExcept(
+                subjectId,
+                ids
+            );
+            AddUsersToSubjectResultDTO added = toResult(
+                ids,
+                enrolmentMapper.insertAllForSubject(subjectId, ids)
+            );
+            result.added = added.added.size();
+            result.unchanged = added.skipped.size();
+            result.missing = added.missing;
+            UnitOfWork.getCurrent().commit();
+            return result;
+        } catch (SQLException e) {
+            try {
+                UnitOfWork.getCurrent().rollback();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+    }
+
     /**
      * Deletes given instructor from given subject.
      *
@@ -161,7 +298,7 @@ public class SubjectService {
         UUID subjectId,
         UUID instructorId
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             instructorSubjectMapper.deleteByRelationIds(
                 instructorId,
                 subjectId
@@ -186,7 +323,7 @@ public class SubjectService {
      * @param studentId student's id
      */
     public void deleteStudentFromSubject(UUID subjectId, UUID studentId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             enrolmentMapper.deleteByRelationIds(studentId, subjectId);
             UnitOfWork.getCurrent().commit();
         } catch (SQLException e) {
@@ -216,7 +353,7 @@ public class SubjectService {
         UUID[] instructors,
         UUID[] students
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             Subject subject = new Subject(name, description);
 
             for (UUID i : instructors) {
@@ -256,10 +393,10 @@ public class SubjectService {
         UUID subjectId,
         String eTag
     ) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            Subject subject = subjectMapper.findById(subjectId, true);
+        try {
+            Subject subject = subjectMapper.findById(subjectId);
 
-            if (!String.valueOf(subject.hashCode()).equals(eTag)) {
+            if (!subject.hasETag(eTag)) {
                 throw new PreconditionFailedException();
             }
 
@@ -278,4 +415,33 @@ public class SubjectService {
             throw new InternalServerErrorException();
         }
     }
+
+    private Set<UUID> checkIds(List<UUID> ids) {
+        if (ids == null || ids.contains(null)) {
+            throw new BadRequestException();
+        }
+
+        return new LinkedHashSet<>(ids);
+    }
+
+    private AddUsersToSubjectResultDTO toResult(
+        Set<UUID> ids,
+        Map<UUID, Boolean> added
+    ) {
+        AddUsersToSubjectResultDTO result = new AddUsersToSubjectResultDTO();
+
+        for (UUID id : ids) {
+            Boolean wasAdded = added.get(id);
+
+            if (wasAdded == null) {
+                result.missing.add(id);
+            } else if (wasAdded) {
+                result.added.add(id);
+            } else {
+                result.skipped.add(id);
+            }
+        }
+
+        return result;
+    }
 }
@@ -2,12 +2,20 @@ package com.ekzameno.ekzameno.services;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.InternalServerErrorException;
 
+import com.ekzameno.ekzameno.dtos.CreateUserDTO;
+import com.ekzameno.ekzameno.dtos.ImportUserErrorDTO;
+import com.ekzameno.ekzameno.dtos.ImportUsersResultDTO;
 import com.ekzameno.ekzameno.exceptions.ConflictException;
 import com.ekzameno.ekzameno.mappers.InstructorMapper;
 import com.ekzameno.ekzameno.mappers.StudentMapper;
@@ -16,38 +24,40 @@ import com.ekzameno.ekzameno.models.Administrator;
 import com.ekzameno.ekzameno.models.Instructor;
 import com.ekzameno.ekzameno.models.Student;
 import com.ekzameno.ekzameno.models.User;
-import com.ekzameno.ekzameno.shared.DBConnection;
-import com.ekzameno.ekzameno.shared.IdentityMap;
+import com.ekzameno.ekzameno.shared.Page;
+import com.ekzameno.ekzameno.shared.PasswordHasher;
+import com.ekzameno.ekzameno.shared.Transaction;
 import com.ekzameno.ekzameno.shared.UnitOfWork;
 
-import at.favre.lib.crypto.bcrypt.BCrypt;
-
 /**
  * Service to handle users.
  */
 public class UserService {
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    private static final String TAKEN = "Email is already taken";
     private final UserMapper userMapper = new UserMapper();
     private final InstructorMapper instructorMapper = new InstructorMapper();
     private final StudentMapper studentMapper = new StudentMapper();
 
     /**
-     * Retrieve all users.
+     * Retrieve a page of all users.
      *
-     * @return all subjects
+     * @param after ID to continue after, or null to start from the beginning
+     * @param limit maximum number of users to return
+     * @return page of users
      */
-    public List<User> getUsers() {
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            return userMapper.findAll();
+    public Page<User> getUsers(UUID after, int limit) {
+        try {
+            return userMapper.findPage(after, limit);
         } catch (SQLException e) {
             e.printStackTrace();
-            return new ArrayList<>();
-        } finally {
-            IdentityMap.reset();
+            return new Page<>(new ArrayList<>(), null);
         }
     }
 
     /**
-     * Register a user.
+     * Register a user, waiting on the current thread for the password to be
+     * hashed.
      *
      * @param name name of the user to register
      * @param email email address of the user to register
@@ -61,40 +71,93 @@ public class UserService {
         String password,
         String type
     ) {
-        String passwordHash = BCrypt.withDefaults().hashToString(
-            12,
-            password.toCharArray()
-        );
+        checkType(type);
+        String passwordHash = PasswordHasher.getInstance()
+            .hash(password)
+            .join();
+        return createUser(name, email, passwordHash, type);
+    }
 
-        try (DBConnection connection = DBConnection.getCurrent()) {
-            User user;
+    /**
+     * Register a user without blocking the current thread while the password
+     * is hashed. The current transaction is handed over to the thread which
+     * finishes registering the user.
+     *
+     * @param name name of the user to register
+     * @param email email address of the user to register
+     * @param password password of the user to register
+     * @param type type of the user to register
+     * @return future completed with the new user
+     */
+    public CompletableFuture<User> registerUserAsync(
+        String name,
+        String email,
+        String password,
+        String type
+    ) {
+        checkType(type);
+        Transaction transaction = Transaction.getCurrent();
+        transaction.detach();
 
-            if (type.toLowerCase().equals("student")) {
-                user = new Student(email, name, passwordHash);
-            } else if (type.toLowerCase().equals("instructor")) {
-                user = new Instructor(email, name, passwordHash);
-            } else if (type.toLowerCase().equals("administrator")) {
-                user = new Administrator(email, name, passwordHash);
-            } else {
-                throw new BadRequestException();
-            }
+        return PasswordHasher.getInstance()
+            .hash(password)
+            .thenApply(passwordHash -> {
+                transaction.attach();
+                return createUser(name, email, passwordHash, type);
+            });
+    }
 
-            UnitOfWork.getCurrent().commit();
-            return user;
-        } catch (SQLException e) {
-            try {
-                UnitOfWork.getCurrent().rollback();
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
+    /**
+     * Import users, hashing their passwords in parallel and inserting them in
+     * batches. Users are read from the iterator as they are imported, so the
+     * whole import is never held in memory. Users which are invalid or whose
+     * email address is taken are reported without stopping the import.
+     *
+     * @param users users to import
+     * @return how many users were created, and why any were not
+     */
+    public ImportUsersResultDTO importUsers(Iterator<CreateUserDTO> users) {
+        ImportUsersResultDTO result = new ImportUsersResultDTO();
+        Set<String> seen = new HashSet<>();
+        List<CreateUserDTO> chunk = new ArrayList<>();
+        List<Integer> rows = new ArrayList<>();
+        int row = 0;
 
-            if ("23505".equals(e.getSQLState())) {
-                throw new ConflictException();
+        try {
+            while (users.hasNext()) {
+                CreateUserDTO dto = users.next();
+                String error = validateImport(dto, seen);
+                row++;
+
+                if (error != null) {
+                    result.errors.add(new ImportUserErrorDTO(
+                        row,
+                        dto == null ? null : dto.email,
+                        error
+                    ));
+                    continue;
+                }
+
+                chunk.add(dto);
+                rows.add(row);
+
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    importChunk(chunk, rows, result);
+                    chunk.clear();
+                    rows.clear();
+                }
             }
 
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, rows, result);
+            }
+        } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
         }
+
+        result.errors.sort(Comparator.comparingInt(error -> error.row));
+        return result;
     }
 
     /**
@@ -104,13 +167,11 @@ public class UserService {
      * @return list of instructors
      */
     public List<Instructor> getInstructorsForSubject(UUID subjectId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             return instructorMapper.findAllForSubject(subjectId);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
         }
     }
 
@@ -121,13 +182,138 @@ public class UserService {
      * @return list of students
      */
     public List<Student> getStudentsForSubject(UUID subjectId) {
-        try (DBConnection connection = DBConnection.getCurrent()) {
+        try {
             return studentMapper.findAllForSubject(subjectId);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new InternalServerErrorException();
-        } finally {
-            IdentityMap.reset();
+        }
+    }
+
+    private void checkType(String type) {
+        if (!isValidType(type)) {
+            throw new BadRequestException();
+        }
+    }
+
+    private boolean isValidType(String type) {
+        if (type == null) {
+            return false;
+        }
+
+        return type.toLowerCase().equals("student") ||
+            type.toLowerCase().equals("instructor") ||
+            type.toLowerCase().equals("administrator");
+    }
+
+    private String validateImport(CreateUserDTO dto, Set<String> seen) {
+        if (
+            dto == null ||
+                dto.name == null ||
+                dto.name.isBlank() ||
+                dto.email == null ||
+                dto.email.isBlank() ||
+                dto.password == null ||
+                dto.password.isEmpty()
+        ) {
+            return "Missing name, email or password";
+        } else if (!isValidType(dto.type)) {
+            return "Invalid type";
+        } else if (!seen.add(dto.email)) {
+            return "Email appears earlier in the import";
+        }
+
+        return null;
+    }
+
+    private void importChunk(
+        List<CreateUserDTO> dtos,
+        List<Integer> rows,
+        ImportUsersResultDTO result
+    ) throws SQLException {
+        List<String> emails = new ArrayList<>();
+
+        for (CreateUserDTO dto : dtos) {
+            emails.add(dto.email);
+        }
+
+        // Skip hashing passwords for users which would conflict anyway.
+        Set<String> taken = userMapper.findTakenEmails(emails);
+        List<CreateUserDTO> fresh = new ArrayList<>();
+        List<Integer> freshRows = new ArrayList<>();
+        List<String> passwords = new ArrayList<>();
+
+        for (int i = 0; i < dtos.size(); i++) {
+            CreateUserDTO dto = dtos.get(i);
+
+            if (taken.contains(dto.email)) {
+                result.errors.add(
+                    new ImportUserErrorDTO(rows.get(i), dto.email, TAKEN)
+                );
+            } else {
+                fresh.add(dto);
+                freshRows.add(rows.get(i));
+                passwords.add(dto.password);
+            }
+        }
+
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = PasswordHasher.getInstance().hashAll(passwords);
+
+        // Emails may have been taken since they were checked.
+        Set<String> inserted = userMapper.insertAllIgnoringConflicts(
+            fresh,
+            hashes
+        );
+
+        for (int i = 0; i < fresh.size(); i++) {
+            String email = fresh.get(i).email;
+
+            if (inserted.contains(email)) {
+                result.created++;
+            } else {
+                result.errors.add(
+                    new ImportUserErrorDTO(freshRows.get(i), email, TAKEN)
+                );
+            }
+        }
+    }
+
+    private User createUser(
+        String name,
+        String email,
+        String passwordHash,
+        String type
+    ) {
+        try {
+            User user;
+
+            if (type.toLowerCase().equals("student")) {
+                user = new Student(email, name, passwordHash);
+            } else if (type.toLowerCase().equals("instructor")) {
+                user = new Instructor(email, name, passwordHash);
+            } else {
+                user = new Administrator(email, name, passwordHash);
+            }
+
+            UnitOfWork.getCurrent().commit();
+            return user;
+        } catch (SQLException e) {
+            try {
+                UnitOfWork.getCurrent().rollback();
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+
+            if ("23505".equals(e.getSQLState())) {
+                throw new ConflictException();
+            }
+
+            e.printStackTrace();
+            throw new InternalServerErrorException();
         }
     }
 }
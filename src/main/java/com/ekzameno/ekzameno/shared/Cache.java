@@ -0,0 +1,198 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Thread safe, size bounded cache which evicts the least recently used entry
+ * once full and expires entries after a fixed time to live.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class Cache<K, V> {
+    private final int maxSize;
+    private final long ttl;
+    private final LinkedHashMap<K, Entry<V>> entries =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize maximum number of entries to keep
+     * @param ttl     milliseconds an entry is kept after it is put
+     */
+    public Cache(int maxSize, long ttl) {
+        if (maxSize < 0 || ttl < 0) {
+            throw new IllegalArgumentException(
+                "Invalid cache: size " + maxSize + ", ttl " + ttl
+            );
+        }
+
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Retrieve the value for a given key.
+     *
+     * @param key key of the value to retrieve
+     * @return the value, or null if it is not cached or has expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (entry.expires < System.currentTimeMillis()) {
+            entries.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Put a value into the cache, evicting the least recently used entry if
+     * the cache is full.
+     *
+     * @param key   key of the value
+     * @param value value to cache
+     */
+    public synchronized void put(K key, V value) {
+        if (maxSize == 0) {
+            return;
+        }
+
+        entries.put(
+            key,
+            new Entry<>(value, System.currentTimeMillis() + ttl)
+        );
+
+        Iterator<Map.Entry<K, Entry<V>>> eldest =
+            entries.entrySet().iterator();
+
+        while (entries.size() > maxSize) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Remove the value for a given key.
+     *
+     * @param key key of the value to remove
+     */
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove every entry matching a given predicate.
+     *
+     * @param predicate predicate to test each key and value with
+     */
+    public synchronized void removeIf(BiPredicate<K, V> predicate) {
+        entries.entrySet().removeIf(
+            entry -> predicate.test(entry.getKey(), entry.getValue().value)
+        );
+    }
+
+    /**
+     * Remove every value from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retrieve statistics for the cache.
+     *
+     * @return point in time statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(
+            maxSize,
+            entries.size(),
+            hits,
+            misses,
+            evictions,
+            expirations
+        );
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expires;
+
+        Entry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Point in time statistics for a cache.
+     */
+    public static class Stats {
+        private final int maxSize;
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+
+        Stats(
+            int maxSize,
+            int size,
+            long hits,
+            long misses,
+            long evictions,
+            long expirations
+        ) {
+            this.maxSize = maxSize;
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+    }
+}
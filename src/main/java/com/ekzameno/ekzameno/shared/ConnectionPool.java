@@ -0,0 +1,463 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of connections to the database.
+ */
+public class ConnectionPool {
+    private static final ConnectionPool instance = new ConnectionPool(
+        System.getenv("JDBC_DATABASE_URL"),
+        Env.getInt("DB_POOL_MIN_SIZE", 2),
+        Env.getInt("DB_POOL_MAX_SIZE", 10),
+        Env.getInt("DB_POOL_ACQUIRE_TIMEOUT_MS", 5000),
+        Env.getInt("DB_POOL_IDLE_TIMEOUT_MS", 600000),
+        Env.getInt("DB_POOL_VALIDATION_INTERVAL_MS", 1000)
+    );
+
+    private final String url;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeout;
+    private final long idleTimeout;
+    private final long validationInterval;
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Create a connection pool.
+     *
+     * @param url                URL of the database
+     * @param minSize            number of connections to keep open when idle
+     * @param maxSize            maximum number of open connections
+     * @param acquireTimeout     milliseconds to wait for a free connection
+     * @param idleTimeout        milliseconds before an idle connection above
+     *                           the minimum size is closed
+     * @param validationInterval milliseconds a connection may sit idle before
+     *                           it is validated on borrow
+     */
+    public ConnectionPool(
+        String url,
+        int minSize,
+        int maxSize,
+        long acquireTimeout,
+        long idleTimeout,
+        long validationInterval
+    ) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException(
+                "Invalid pool size: min " + minSize + ", max " + maxSize
+            );
+        }
+
+        try {
+            Class.forName("org.postgresql.Driver");
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+
+        this.url = url;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeout = acquireTimeout;
+        this.idleTimeout = idleTimeout;
+        this.validationInterval = validationInterval;
+        this.permits = new Semaphore(maxSize, true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long period = Math.max(1000, Math.min(idleTimeout / 2, 30000));
+        evictor.scheduleWithFixedDelay(
+            this::maintain,
+            0,
+            period,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Retrieve the application wide connection pool.
+     *
+     * @return the application wide connection pool
+     */
+    public static ConnectionPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting for one to become free if
+     * the pool is exhausted.
+     *
+     * @return a validated connection with auto commit disabled
+     * @throws SQLException if no connection could be acquired in time
+     */
+    public Connection borrow() throws SQLException {
+        waiting.incrementAndGet();
+
+        try {
+            if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                    "Timed out after " + acquireTimeout +
+                    "ms waiting for a database connection"
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(
+                "Interrupted while waiting for a database connection",
+                e
+            );
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        try {
+            Connection connection = acquire(
+                System.currentTimeMillis() + acquireTimeout
+            );
+            borrowed.incrementAndGet();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a borrowed connection to the pool, discarding any uncommitted
+     * changes.
+     *
+     * @param connection connection to return
+     */
+    public void release(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                total.decrementAndGet();
+                destroyed.incrementAndGet();
+                signal();
+                return;
+            }
+
+            connection.rollback();
+
+            synchronized (idle) {
+                idle.push(new IdleConnection(connection));
+                idle.notifyAll();
+            }
+        } catch (SQLException e) {
+            destroy(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Close all idle connections and stop background maintenance.
+     */
+    public void shutdown() {
+        evictor.shutdownNow();
+
+        synchronized (idle) {
+            while (!idle.isEmpty()) {
+                destroy(idle.pop().connection);
+            }
+        }
+    }
+
+    /**
+     * Retrieve a snapshot of the pool's statistics.
+     *
+     * @return statistics for the pool
+     */
+    public Stats getStats() {
+        int idleCount;
+
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+
+        return new Stats(
+            minSize,
+            maxSize,
+            total.get(),
+            idleCount,
+            maxSize - permits.availablePermits(),
+            waiting.get(),
+            borrowed.get(),
+            created.get(),
+            destroyed.get(),
+            timeouts.get(),
+            validationFailures.get()
+        );
+    }
+
+    private Connection acquire(long deadline) throws SQLException {
+        while (true) {
+            IdleConnection candidate;
+
+            synchronized (idle) {
+                candidate = idle.poll();
+
+                if (candidate == null && total.get() >= maxSize) {
+                    // A connection is being opened by maintenance and will
+                    // be pushed onto the idle stack shortly.
+                    awaitConnection(deadline);
+                    continue;
+                }
+            }
+
+            if (candidate != null) {
+                if (validate(candidate)) {
+                    return candidate.connection;
+                }
+
+                validationFailures.incrementAndGet();
+                destroy(candidate.connection);
+            } else if (reserve(maxSize)) {
+                return open();
+            }
+        }
+    }
+
+    private void awaitConnection(long deadline) throws SQLException {
+        long remaining = deadline - System.currentTimeMillis();
+
+        if (remaining <= 0) {
+            timeouts.incrementAndGet();
+            throw new SQLTransientConnectionException(
+                "Timed out after " + acquireTimeout +
+                "ms waiting for a database connection"
+            );
+        }
+
+        try {
+            idle.wait(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(
+                "Interrupted while waiting for a database connection",
+                e
+            );
+        }
+    }
+
+    // Wakes borrowers waiting for an idle connection or for room to open one.
+    private void signal() {
+        synchronized (idle) {
+            idle.notifyAll();
+        }
+    }
+
+    private boolean validate(IdleConnection candidate) {
+        if (
+            System.currentTimeMillis() - candidate.since < validationInterval
+        ) {
+            return true;
+        }
+
+        try {
+            return candidate.connection.isValid(
+                (int) Math.max(1, acquireTimeout / 1000)
+            );
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean reserve(int limit) {
+        while (true) {
+            int current = total.get();
+
+            if (current >= limit) {
+                return false;
+            }
+
+            if (total.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Connection open() throws SQLException {
+        try {
+            Properties properties = new Properties();
+            // Lets the driver collapse batched inserts into multi-row
+            // statements.
+            properties.setProperty("reWriteBatchedInserts", "true");
+            Connection connection = DriverManager.getConnection(
+                url,
+                properties
+            );
+            connection.setAutoCommit(false);
+            created.incrementAndGet();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            signal();
+            throw e;
+        }
+    }
+
+    private void destroy(Connection connection) {
+        total.decrementAndGet();
+        destroyed.incrementAndGet();
+        signal();
+
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void maintain() {
+        long now = System.currentTimeMillis();
+
+        synchronized (idle) {
+            // The oldest idle connections are at the bottom of the stack.
+            while (isEvictable(idle.peekLast(), now)) {
+                destroy(idle.pollLast().connection);
+            }
+        }
+
+        while (reserve(minSize)) {
+            try {
+                Connection connection = open();
+
+                synchronized (idle) {
+                    idle.push(new IdleConnection(connection));
+                    idle.notifyAll();
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    private boolean isEvictable(IdleConnection candidate, long now) {
+        return candidate != null &&
+            total.get() > minSize &&
+            now - candidate.since > idleTimeout;
+    }
+
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long since = System.currentTimeMillis();
+
+        IdleConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * Point in time statistics for a connection pool.
+     */
+    public static class Stats {
+        private final int minSize;
+        private final int maxSize;
+        private final int total;
+        private final int idle;
+        private final int active;
+        private final int waiting;
+        private final long borrowed;
+        private final long created;
+        private final long destroyed;
+        private final long timeouts;
+        private final long validationFailures;
+
+        Stats(
+            int minSize,
+            int maxSize,
+            int total,
+            int idle,
+            int active,
+            int waiting,
+            long borrowed,
+            long created,
+            long destroyed,
+            long timeouts,
+            long validationFailures
+        ) {
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.borrowed = borrowed;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.timeouts = timeouts;
+            this.validationFailures = validationFailures;
+        }
+
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public long getBorrowed() {
+            return borrowed;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getDestroyed() {
+            return destroyed;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reads comma separated values one record at a time. The first line names
+ * the columns, and each following line is read as a record keyed by column
+ * name. Fields may be quoted, with quotes inside them doubled, but may not
+ * span lines.
+ */
+public class CsvReader {
+    private final BufferedReader reader;
+    private final List<String> columns;
+
+    /**
+     * Create a reader for a stream, reading its header.
+     *
+     * @param in stream to read from
+     * @throws IOException if unable to read the header
+     */
+    public CsvReader(InputStream in) throws IOException {
+        this.reader = new BufferedReader(
+            new InputStreamReader(in, StandardCharsets.UTF_8)
+        );
+        String header = reader.readLine();
+        this.columns = new ArrayList<>();
+
+        if (header != null) {
+            for (String column : parseLine(header)) {
+                columns.add(column.trim().toLowerCase());
+            }
+        }
+    }
+
+    /**
+     * Lazily read the remaining records, skipping blank lines. Columns
+     * missing from a record are left out of its map.
+     *
+     * @return stream of records keyed by column name
+     * @throws UncheckedIOException if unable to read a record
+     */
+    public Stream<Map<String, String>> records() {
+        return reader
+            .lines()
+            .filter(line -> !line.isBlank())
+            .map(line -> {
+                List<String> fields = parseLine(line);
+                Map<String, String> record = new HashMap<>();
+
+                for (int i = 0; i < columns.size() && i < fields.size(); i++) {
+                    record.put(columns.get(i), fields.get(i));
+                }
+
+                return record;
+            });
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (
+                    i + 1 < line.length() && line.charAt(i + 1) == '"'
+                ) {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+}
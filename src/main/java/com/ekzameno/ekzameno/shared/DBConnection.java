@@ -1,61 +1,162 @@
 package com.ekzameno.ekzameno.shared;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Wrapper class to handle connections to the database.
+ * Wrapper class to handle connections to the database. Connections are
+ * borrowed from the {@link ConnectionPool} the first time they are needed and
+ * returned to it when closed.
  */
 public class DBConnection implements AutoCloseable {
     private static final ThreadLocal<DBConnection> dbConnection =
         new ThreadLocal<>();
+    private final boolean managed;
+    private final List<Runnable> completionCallbacks = new ArrayList<>();
     private Connection connection = null;
-    private static final String connectionUrl = System.getenv(
-        "JDBC_DATABASE_URL"
-    );
+    private boolean changed = false;
 
-    private DBConnection() throws SQLException {
-        try {
-            Class.forName("org.postgresql.Driver");
-            connection = DriverManager.getConnection(connectionUrl);
-            connection.setAutoCommit(false);
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-        }
+    DBConnection(boolean managed) {
+        this.managed = managed;
     }
 
     /**
      * Retrieve a thread local singleton DBConnection.
      *
      * @return thread local singleton DBConnection
-     * @throws SQLException if unable to connect to the data base
      */
-    public static DBConnection getCurrent() throws SQLException {
+    public static DBConnection getCurrent() {
         DBConnection dbc = dbConnection.get();
 
         if (dbc == null) {
-            dbc = new DBConnection();
+            dbc = new DBConnection(false);
             dbConnection.set(dbc);
         }
 
         return dbConnection.get();
     }
 
+    static void bind(DBConnection dbc) {
+        dbConnection.set(dbc);
+    }
+
+    static void unbind() {
+        dbConnection.set(null);
+    }
+
     /**
      * Retrieve connection to the Database.
      *
      * @return connection to the database
+     * @throws SQLException if unable to borrow a connection from the pool
      */
-    public Connection getConnection() {
+    public Connection getConnection() throws SQLException {
+        if (connection == null) {
+            connection = ConnectionPool.getInstance().borrow();
+        }
+
         return connection;
     }
 
     /**
-     * Close the DBConnection.
+     * Commit the current transaction. If the connection is managed by a
+     * {@link Transaction} the commit is deferred until the Transaction
+     * completes.
+     *
+     * @throws SQLException if unable to commit the transaction
      */
-    public void close() throws SQLException {
-        connection.close();
-        dbConnection.set(null);
+    public void commit() throws SQLException {
+        if (!managed) {
+            complete(true);
+        }
+    }
+
+    /**
+     * Rollback the current transaction.
+     *
+     * @throws SQLException if unable to rollback the transaction
+     */
+    public void rollback() throws SQLException {
+        complete(false);
+    }
+
+    /**
+     * Register a callback to run once the current transaction has been
+     * committed or rolled back.
+     *
+     * @param callback callback to run
+     */
+    public void onComplete(Runnable callback) {
+        completionCallbacks.add(callback);
+    }
+
+    /**
+     * Record that the current transaction has changed rows which other
+     * transactions cannot see until it commits.
+     */
+    public void markChanged() {
+        changed = true;
+    }
+
+    /**
+     * Whether the current transaction has changed rows which other
+     * transactions cannot see yet.
+     *
+     * @return true if there are uncommitted changes, false otherwise
+     */
+    public boolean hasUncommittedChanges() {
+        return changed;
+    }
+
+    void complete(boolean commit) throws SQLException {
+        changed = false;
+
+        try {
+            if (connection == null) {
+                return;
+            }
+
+            if (commit) {
+                connection.commit();
+            } else {
+                connection.rollback();
+            }
+        } finally {
+            runCompletionCallbacks();
+        }
+    }
+
+    private void runCompletionCallbacks() {
+        List<Runnable> callbacks = new ArrayList<>(completionCallbacks);
+        completionCallbacks.clear();
+
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    /**
+     * Close the DBConnection, returning the connection to the pool. Closing a
+     * connection managed by a {@link Transaction} has no effect.
+     */
+    public void close() {
+        if (!managed) {
+            release();
+        }
+    }
+
+    void release() {
+        runCompletionCallbacks();
+
+        if (dbConnection.get() == this) {
+            dbConnection.set(null);
+        }
+
+        if (connection != null) {
+            ConnectionPool.getInstance().release(connection);
+            connection = null;
+        }
     }
 }
@@ -0,0 +1,32 @@
+package com.ekzameno.ekzameno.shared;
+
+/**
+ * Reads configuration from environment variables.
+ */
+public final class Env {
+    private Env() { }
+
+    /**
+     * Read an integer from an environment variable.
+     *
+     * @param name         name of the variable
+     * @param defaultValue value to use if the variable is not set
+     * @return value of the variable, or the default if it is not set
+     */
+    public static int getInt(String name, int defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    /**
+     * Read a long from an environment variable.
+     *
+     * @param name         name of the variable
+     * @param defaultValue value to use if the variable is not set
+     * @return value of the variable, or the default if it is not set
+     */
+    public static long getLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -1,10 +1,13 @@
 package com.ekzameno.ekzameno.shared;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import com.ekzameno.ekzameno.models.Model;
+import com.ekzameno.ekzameno.proxies.ProxyList;
 
 /**
  * IdentityMap used to cache models in memory.
@@ -12,6 +15,7 @@ import com.ekzameno.ekzameno.models.Model;
 public class IdentityMap {
     private static final ThreadLocal<IdentityMap> current = new ThreadLocal<>();
     private final Map<UUID, Model> map = new HashMap<>();
+    private final Map<Class<?>, List<ProxyList<?>>> proxies = new HashMap<>();
 
     private IdentityMap() { }
 
@@ -35,6 +39,16 @@ public class IdentityMap {
         return current.get();
     }
 
+    static void bind(IdentityMap identityMap) {
+        current.set(identityMap);
+    }
+
+    static IdentityMap unbind() {
+        IdentityMap identityMap = current.get();
+        current.set(null);
+        return identityMap;
+    }
+
     /**
      * Retrieve a model from the IdentityMap for a given ID.
      *
@@ -64,6 +78,28 @@ public class IdentityMap {
         map.remove(id);
     }
 
+    /**
+     * Register a proxy list that has not been initialised yet, so that it can
+     * be loaded together with the other proxies for the same relation.
+     *
+     * @param proxy proxy list to register
+     */
+    public void putProxy(ProxyList<?> proxy) {
+        proxies.computeIfAbsent(proxy.getClass(), k -> new ArrayList<>())
+            .add(proxy);
+    }
+
+    /**
+     * Remove and return every registered proxy list of the given type.
+     *
+     * @param type type of the proxy lists to remove
+     * @return the proxy lists of the given type
+     */
+    public List<ProxyList<?>> removeProxies(Class<?> type) {
+        List<ProxyList<?>> removed = proxies.remove(type);
+        return removed == null ? new ArrayList<>() : removed;
+    }
+
     /**
      * Reset the identity map.
      */
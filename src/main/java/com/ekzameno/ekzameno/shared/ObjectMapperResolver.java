@@ -0,0 +1,30 @@
+package com.ekzameno.ekzameno.shared;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Supplies Jersey's JSON provider with the application wide ObjectMapper, so
+ * that JSON encoded outside of Jersey, such as by the {@link ResponseCache},
+ * matches what Jersey writes for the same entity.
+ */
+@Provider
+public class ObjectMapperResolver implements ContextResolver<ObjectMapper> {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Retrieve the application wide ObjectMapper.
+     *
+     * @return the application wide ObjectMapper
+     */
+    public static ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return objectMapper;
+    }
+}
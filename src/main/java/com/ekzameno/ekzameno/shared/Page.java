@@ -0,0 +1,124 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+/**
+ * A page of models ordered by ID, with a cursor pointing at the next page.
+ *
+ * @param <T> type of the items in the page
+ */
+public class Page<T> {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private final List<T> items;
+    private final UUID next;
+
+    /**
+     * Create a page.
+     *
+     * @param items items in the page
+     * @param next  ID to continue after for the next page, or null if this is
+     *              the last page
+     */
+    public Page(List<T> items, UUID next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Retrieve the opaque cursor for the next page.
+     *
+     * @return cursor for the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        if (next == null) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(next.getMostSignificantBits());
+        buffer.putLong(next.getLeastSignificantBits());
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+            buffer.array()
+        );
+    }
+
+    /**
+     * Build a response containing the items in the page, with a Link header
+     * pointing at the next page if there is one.
+     *
+     * @param uriInfo URI information for the current request
+     * @return response containing the page
+     */
+    public Response toResponse(UriInfo uriInfo) {
+        Response.ResponseBuilder builder = Response.ok(items);
+
+        if (next != null) {
+            builder.link(
+                uriInfo
+                    .getRequestUriBuilder()
+                    .replaceQueryParam("after", getNextCursor())
+                    .build(),
+                "next"
+            );
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Parse the ID to continue after from an opaque cursor.
+     *
+     * @param cursor cursor from a previous page, may be null
+     * @return ID to continue after, or null to start from the beginning
+     */
+    public static UUID parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+
+            if (bytes.length != 16) {
+                throw new BadRequestException();
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    /**
+     * Parse a requested page size, applying the default and maximum limits.
+     *
+     * @param limit requested number of items, may be null
+     * @return number of items to return
+     */
+    public static int parseLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+
+        if (limit < 1) {
+            throw new BadRequestException();
+        }
+
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
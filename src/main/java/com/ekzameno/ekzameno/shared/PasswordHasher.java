@@ -0,0 +1,419 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.ws.rs.ServiceUnavailableException;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+
+/**
+ * Hashes and verifies passwords on a dedicated, bounded pool of threads, so
+ * that a burst of sign ins cannot take every request thread. Once the queue
+ * is full further work is refused with 503 Service Unavailable.
+ *
+ * <p>
+ * The futures returned are completed on a separate pool of threads, so that
+ * the work which follows hashing, such as saving the user, committing the
+ * transaction and writing the response, never holds up hashing threads.
+ * </p>
+ *
+ * <p>
+ * The BCrypt cost is either fixed by {@code BCRYPT_COST} or calibrated at
+ * startup so that hashing takes about {@code BCRYPT_TARGET_MS} on the current
+ * hardware. Passwords hashed with a lower cost are rehashed when they are
+ * next verified. Hashes with a higher cost are kept, so that nodes which
+ * calibrated differently do not keep rehashing each other's passwords.
+ * </p>
+ */
+public class PasswordHasher {
+    private static final PasswordHasher instance = new PasswordHasher(
+        Env.getInt(
+            "BCRYPT_THREADS",
+            Runtime.getRuntime().availableProcessors()
+        ),
+        Env.getInt("BCRYPT_QUEUE_SIZE", 100)
+    );
+    private static final int DEFAULT_COST = 12;
+    // Costs below 10 are too cheap to brute force, whatever the hardware.
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 16;
+    private static final int CALIBRATION_COST = 8;
+    private static final int CALIBRATION_ROUNDS = 5;
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService completer;
+    private volatile int cost = DEFAULT_COST;
+    private long rejected = 0;
+    private long completed = 0;
+    private long waitNanos = 0;
+    private long hashNanos = 0;
+    private long maxHashNanos = 0;
+
+    /**
+     * Create a password hasher.
+     *
+     * @param threads   number of threads to hash on
+     * @param queueSize maximum number of passwords waiting to be hashed
+     */
+    public PasswordHasher(int threads, int queueSize) {
+        AtomicInteger count = new AtomicInteger();
+        AtomicInteger completerCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            runnable -> {
+                Thread thread = new Thread(
+                    runnable,
+                    "bcrypt-" + count.incrementAndGet()
+                );
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        // At most one thread per queued or running hash is ever needed.
+        this.completer = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(
+                runnable,
+                "bcrypt-completer-" + completerCount.incrementAndGet()
+            );
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Retrieve the application wide password hasher.
+     *
+     * @return the application wide password hasher
+     */
+    public static PasswordHasher getInstance() {
+        return instance;
+    }
+
+    /**
+     * Pick the BCrypt cost, either from {@code BCRYPT_COST} or by timing
+     * hashes on the current thread so that hashing takes about
+     * {@code BCRYPT_TARGET_MS}. Each extra unit of cost doubles the time a
+     * hash takes. Either way the cost is kept between 10 and 16.
+     */
+    public void calibrate() {
+        String fixed = System.getenv("BCRYPT_COST");
+
+        if (fixed != null) {
+            cost = clamp(Integer.parseInt(fixed));
+            return;
+        }
+
+        long target = Env.getLong("BCRYPT_TARGET_MS", 250);
+        char[] password = "calibration".toCharArray();
+        long best = Long.MAX_VALUE;
+
+        // Take the fastest of several rounds to discount JIT warm up.
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            BCrypt.withDefaults().hash(CALIBRATION_COST, password);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double millis = Math.max(best / 1000000.0, 0.01);
+        int calibrated = CALIBRATION_COST +
+            (int) Math.round(Math.log(target / millis) / Math.log(2));
+        cost = clamp(calibrated);
+    }
+
+    /**
+     * Retrieve the BCrypt cost new hashes are made with.
+     *
+     * @return the BCrypt cost
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Hash a password.
+     *
+     * @param password password to hash
+     * @return future completed with the hash
+     * @throws ServiceUnavailableException if too many passwords are queued
+     */
+    public CompletableFuture<String> hash(String password) {
+        return submit(
+            () -> BCrypt.withDefaults().hashToString(
+                cost,
+                password.toCharArray()
+            )
+        );
+    }
+
+    /**
+     * Hash many passwords in parallel, waiting on the current thread for all
+     * of them. At most one password per thread is queued at a time, so that
+     * sign ins are not stuck behind a long batch, and when the queue is full
+     * the current thread hashes the password itself instead of failing.
+     *
+     * @param passwords passwords to hash
+     * @return hashes of the passwords, in the same order
+     */
+    public List<String> hashAll(List<String> passwords) {
+        List<String> hashes = new ArrayList<>();
+        int window = executor.getMaximumPoolSize();
+
+        for (int i = 0; i < passwords.size(); i += window) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+
+            for (String password : passwords.subList(
+                i,
+                Math.min(i + window, passwords.size())
+            )) {
+                Supplier<String> task = () -> BCrypt
+                    .withDefaults()
+                    .hashToString(cost, password.toCharArray());
+                CompletableFuture<String> future = trySubmit(task);
+                futures.add(
+                    future == null
+                        ? CompletableFuture.completedFuture(task.get())
+                        : future
+                );
+            }
+
+            for (CompletableFuture<String> future : futures) {
+                hashes.add(future.join());
+            }
+        }
+
+        return hashes;
+    }
+
+    /**
+     * Verify a password against a hash, rehashing the password if it matches
+     * but the hash was made with a lower cost.
+     *
+     * @param password password to verify
+     * @param hash     hash to verify the password against
+     * @return future completed with the result of the verification
+     * @throws ServiceUnavailableException if too many passwords are queued
+     */
+    public CompletableFuture<Verification> verify(
+        String password,
+        String hash
+    ) {
+        return submit(() -> {
+            int currentCost = cost;
+            BCrypt.Result result = BCrypt
+                .verifyer()
+                .verify(password.toCharArray(), hash);
+
+            if (!result.verified) {
+                return new Verification(false, null);
+            } else if (result.details.cost >= currentCost) {
+                return new Verification(true, null);
+            }
+
+            return new Verification(
+                true,
+                BCrypt.withDefaults().hashToString(
+                    currentCost,
+                    password.toCharArray()
+                )
+            );
+        });
+    }
+
+    /**
+     * Stop the pool's threads, abandoning any queued work.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        completer.shutdownNow();
+    }
+
+    /**
+     * Retrieve statistics for the pool.
+     *
+     * @return point in time statistics
+     */
+    public synchronized Stats getStats() {
+        return new Stats(
+            executor.getMaximumPoolSize(),
+            cost,
+            executor.getActiveCount(),
+            executor.getQueue().size(),
+            completed,
+            rejected,
+            completed == 0 ? 0 : waitNanos / completed / 1000000,
+            completed == 0 ? 0 : hashNanos / completed / 1000000,
+            maxHashNanos / 1000000
+        );
+    }
+
+    private <V> CompletableFuture<V> submit(Supplier<V> task) {
+        CompletableFuture<V> future = trySubmit(task);
+
+        if (future == null) {
+            synchronized (this) {
+                rejected++;
+            }
+
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+        }
+
+        return future;
+    }
+
+    private <V> CompletableFuture<V> trySubmit(Supplier<V> task) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        long queued = System.nanoTime();
+
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                V value;
+
+                try {
+                    value = task.get();
+                } catch (RuntimeException e) {
+                    completer.execute(() -> future.completeExceptionally(e));
+                    return;
+                } finally {
+                    record(started - queued, System.nanoTime() - started);
+                }
+
+                // Dependent stages run on the thread that completes the
+                // future, so it must not be one of the hashing threads.
+                completer.execute(() -> future.complete(value));
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+
+        return future;
+    }
+
+    private synchronized void record(long wait, long hash) {
+        completed++;
+        waitNanos += wait;
+        hashNanos += hash;
+        maxHashNanos = Math.max(maxHashNanos, hash);
+    }
+
+    private static int clamp(int cost) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+
+    /**
+     * Result of verifying a password.
+     */
+    public static class Verification {
+        private final boolean verified;
+        private final String rehash;
+
+        Verification(boolean verified, String rehash) {
+            this.verified = verified;
+            this.rehash = rehash;
+        }
+
+        public boolean isVerified() {
+            return verified;
+        }
+
+        /**
+         * Retrieve a new hash of the password made with the current cost, if
+         * the password matched a hash made with a lower cost.
+         *
+         * @return the new hash, or null if the password does not need to be
+         *         rehashed
+         */
+        public String getRehash() {
+            return rehash;
+        }
+    }
+
+    /**
+     * Point in time statistics for a password hasher.
+     */
+    public static class Stats {
+        private final int threads;
+        private final int cost;
+        private final int active;
+        private final int queueDepth;
+        private final long completed;
+        private final long rejected;
+        private final long averageWaitMillis;
+        private final long averageHashMillis;
+        private final long maxHashMillis;
+
+        Stats(
+            int threads,
+            int cost,
+            int active,
+            int queueDepth,
+            long completed,
+            long rejected,
+            long averageWaitMillis,
+            long averageHashMillis,
+            long maxHashMillis
+        ) {
+            this.threads = threads;
+            this.cost = cost;
+            this.active = active;
+            this.queueDepth = queueDepth;
+            this.completed = completed;
+            this.rejected = rejected;
+            this.averageWaitMillis = averageWaitMillis;
+            this.averageHashMillis = averageHashMillis;
+            this.maxHashMillis = maxHashMillis;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public long getCompleted() {
+            return completed;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        public long getAverageHashMillis() {
+            return averageHashMillis;
+        }
+
+        public long getMaxHashMillis() {
+            return maxHashMillis;
+        }
+    }
+}
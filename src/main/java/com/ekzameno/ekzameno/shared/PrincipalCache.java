@@ -0,0 +1,109 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the type of each authenticated user, so that requests can be
+ * authenticated without looking the user up in the database.
+ *
+ * <p>
+ * Users are evicted whenever they change, including on other nodes, through
+ * {@link com.ekzameno.ekzameno.mappers.EntityCache}.
+ * </p>
+ */
+public class PrincipalCache {
+    private static final PrincipalCache instance = new PrincipalCache(
+        Env.getInt("PRINCIPAL_CACHE_SIZE", 10000),
+        Env.getLong("PRINCIPAL_CACHE_TTL_MS", 300000)
+    );
+
+    private final Cache<UUID, String> types;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Create a principal cache.
+     *
+     * @param maxSize maximum number of users to keep
+     * @param ttl     milliseconds a user is kept after it is put
+     */
+    public PrincipalCache(int maxSize, long ttl) {
+        this.types = new Cache<>(maxSize, ttl);
+    }
+
+    /**
+     * Retrieve the application wide principal cache.
+     *
+     * @return the application wide principal cache
+     */
+    public static PrincipalCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Retrieve the current generation of the cache, which changes every time
+     * a user is evicted. Read it before looking up a user and pass it to
+     * {@link #put(UUID, String, long)}.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Retrieve the type of the user with a given ID.
+     *
+     * @param id ID of the user
+     * @return the type of the user, or null if it is not cached
+     */
+    public String get(UUID id) {
+        return types.get(id);
+    }
+
+    /**
+     * Cache the type of a user, unless a user has been evicted since it was
+     * looked up.
+     *
+     * @param id         ID of the user
+     * @param type       type of the user
+     * @param generation generation of the cache before the user was looked
+     *                   up
+     */
+    public void put(UUID id, String type, long generation) {
+        if (generation == this.generation.get()) {
+            types.put(id, type);
+        }
+    }
+
+    /**
+     * Remove the users with the given IDs from the cache.
+     *
+     * @param ids IDs of the users to remove
+     */
+    public void invalidate(Collection<UUID> ids) {
+        generation.incrementAndGet();
+
+        for (UUID id : ids) {
+            types.remove(id);
+        }
+    }
+
+    /**
+     * Remove every user from the cache.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        types.clear();
+    }
+
+    /**
+     * Retrieve statistics for the cache.
+     *
+     * @return point in time statistics
+     */
+    public Cache.Stats getStats() {
+        return types.getStats();
+    }
+}
@@ -0,0 +1,305 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * Cache of encoded JSON responses for read mostly endpoints, so that the same
+ * model graph is not serialized again for every request.
+ *
+ * <p>
+ * Each entry is tagged with the IDs of the models it was built from, and is
+ * invalidated whenever one of them is evicted from the
+ * {@link com.ekzameno.ekzameno.mappers.EntityCache}, including by other nodes.
+ * </p>
+ */
+public class ResponseCache {
+    private static final ResponseCache instance = new ResponseCache(
+        Env.getInt("RESPONSE_CACHE_SIZE", 1000),
+        Env.getLong("RESPONSE_CACHE_TTL_MS", 600000)
+    );
+
+    private final Cache<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Create a response cache.
+     *
+     * @param maxSize maximum number of responses to keep
+     * @param ttl     milliseconds a response is kept after it is put
+     */
+    public ResponseCache(int maxSize, long ttl) {
+        this.entries = new Cache<>(maxSize, ttl);
+    }
+
+    /**
+     * Retrieve the application wide response cache.
+     *
+     * @return the application wide response cache
+     */
+    public static ResponseCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Retrieve the current generation of the cache, which changes every time
+     * an entry is invalidated. Read it before loading the models for a
+     * response and pass it to {@link #put(String, Object, Collection, long)}.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Retrieve the cached response for a given key.
+     *
+     * @param key key of the response
+     * @return the cached response, or null if it is not cached
+     */
+    public Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Encode a response and cache it, unless an entry has been invalidated
+     * since the models were loaded.
+     *
+     * @param key        key of the response
+     * @param entity     entity to encode
+     * @param tags       IDs of the models the entity was built from
+     * @param generation generation of the cache before the models were loaded
+     * @return the encoded response
+     */
+    public Entry put(
+        String key,
+        Object entity,
+        Collection<UUID> tags,
+        long generation
+    ) {
+        Entry entry;
+
+        try {
+            entry = new Entry(
+                ObjectMapperResolver.getObjectMapper()
+                    .writeValueAsBytes(entity),
+                tags
+            );
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new InternalServerErrorException();
+        }
+
+        // Another request may have changed the models while they were being
+        // loaded, in which case the entry could already be stale.
+        if (generation == this.generation.get()) {
+            entries.put(key, entry);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Invalidate every response built from any of the given models.
+     *
+     * @param ids IDs of the models that changed
+     */
+    public void invalidate(Collection<UUID> ids) {
+        generation.incrementAndGet();
+        entries.removeIf((key, entry) -> {
+            for (UUID id : ids) {
+                if (entry.tags.contains(id)) {
+                    return true;
+                }
+            }
+
+            return false;
+        });
+    }
+
+    /**
+     * Remove every response from the cache.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Retrieve statistics for the cache.
+     *
+     * @return point in time statistics
+     */
+    public Cache.Stats getStats() {
+        return entries.getStats();
+    }
+
+    /**
+     * An encoded JSON response, along with its gzip encoding and strong
+     * entity tags for both.
+     */
+    public static class Entry {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String eTag;
+        private final String gzipETag;
+        private final Set<UUID> tags;
+
+        Entry(byte[] json, Collection<UUID> tags) throws IOException {
+            this.json = json;
+            this.gzip = compress(json);
+            this.eTag = "\"" + hash(json) + "\"";
+            this.gzipETag = "\"" + hash(json) + "-gzip\"";
+            this.tags = new HashSet<>(tags);
+        }
+
+        /**
+         * Build a response for a request, writing the encoded bytes directly
+         * or replying that the client's copy is not modified.
+         *
+         * @param headers headers of the request
+         * @return response to the request
+         */
+        public Response toResponse(HttpHeaders headers) {
+            boolean useGzip = acceptsGzip(
+                headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING)
+            );
+            String tag = useGzip ? gzipETag : eTag;
+
+            if (matches(headers.getHeaderString(HttpHeaders.IF_NONE_MATCH))) {
+                return Response
+                    .notModified()
+                    .header(HttpHeaders.ETAG, tag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+            }
+
+            Response.ResponseBuilder builder = Response
+                .ok(useGzip ? gzip : json, MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.ETAG, tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            if (useGzip) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+
+            return builder.build();
+        }
+
+        /**
+         * Decide whether to send the gzip encoding, from the codings and
+         * quality values of an Accept-Encoding header. Gzip is sent unless
+         * it is refused with a quality of zero, or the client prefers the
+         * unencoded response.
+         *
+         * @param acceptEncoding Accept-Encoding header of the request
+         * @return whether to send the gzip encoding
+         */
+        private static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+
+            Double gzip = null;
+            Double identity = null;
+            Double any = null;
+
+            for (String coding : acceptEncoding.split(",")) {
+                String[] params = coding.split(";");
+                String name = params[0].trim().toLowerCase();
+                double quality = 1;
+
+                for (int i = 1; i < params.length; i++) {
+                    String param = params[i].trim().toLowerCase();
+
+                    if (param.startsWith("q=")) {
+                        try {
+                            quality = Double.parseDouble(param.substring(2));
+                        } catch (NumberFormatException e) {
+                            quality = 0;
+                        }
+                    }
+                }
+
+                if (name.equals("gzip") || name.equals("x-gzip")) {
+                    gzip = quality;
+                } else if (name.equals("identity")) {
+                    identity = quality;
+                } else if (name.equals("*")) {
+                    any = quality;
+                }
+            }
+
+            if (gzip == null) {
+                gzip = any == null ? 0 : any;
+            }
+
+            if (identity == null) {
+                identity = any == null ? 0 : any;
+            }
+
+            return gzip > 0 && gzip >= identity;
+        }
+
+        private boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+
+            for (String candidate : ifNoneMatch.split(",")) {
+                String trimmed = candidate.trim();
+
+                if (
+                    trimmed.equals("*") ||
+                        trimmed.equals(eTag) ||
+                        trimmed.equals(gzipETag)
+                ) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static byte[] compress(byte[] bytes) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(bytes);
+            }
+
+            return out.toByteArray();
+        }
+
+        private static String hash(byte[] bytes) {
+            try {
+                byte[] digest =
+                    MessageDigest.getInstance("SHA-256").digest(bytes);
+                StringBuilder builder = new StringBuilder();
+
+                // Half of the digest is plenty to tell versions apart.
+                for (int i = 0; i < digest.length / 2; i++) {
+                    builder.append(String.format("%02x", digest[i]));
+                }
+
+                return builder.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
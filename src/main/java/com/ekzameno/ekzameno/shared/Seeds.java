@@ -54,7 +54,7 @@ public class Seeds {
             return;
         }
 
-        try {
+        try (Transaction transaction = Transaction.begin()) {
             userService.registerUser(
                 "Admin",
                 "admin@ekzame.no",
@@ -538,8 +538,12 @@ public class Seeds {
                 "SHORT_ANSWER",
                 null
             );
+
+            transaction.commit();
         } catch (ConflictException e) {
             System.out.println("Users already exist");
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
     }
 }
@@ -0,0 +1,269 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.ws.rs.ServiceUnavailableException;
+
+/**
+ * Coalesces concurrent identical reads, so that when many requests ask for
+ * the same key at once only the first one loads it and the rest share its
+ * result.
+ *
+ * <p>
+ * Waiting requests do not hold a database connection, since connections are
+ * only borrowed from the pool once a request first uses one. Results are
+ * shared between threads, so they must be immutable, such as a
+ * {@link ResponseCache.Entry}, rather than models.
+ * </p>
+ *
+ * <p>
+ * Waiting requests give up after {@code SINGLE_FLIGHT_TIMEOUT_MS} and are
+ * refused with 503 Service Unavailable, so a load which is stuck cannot hold
+ * every request for its key. They do not load the value themselves, since a
+ * stuck load is usually waiting on the database they would query.
+ * </p>
+ */
+public class SingleFlight {
+    private static final SingleFlight instance =
+        new SingleFlight(Env.getLong("SINGLE_FLIGHT_TIMEOUT_MS", 5000));
+    private static final int MAX_TRACKED_KEYS = 1000;
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final long timeout;
+
+    private final Map<String, CompletableFuture<Object>> calls =
+        new ConcurrentHashMap<>();
+    private final Map<String, KeyStats> keys =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<String, KeyStats> eldest
+            ) {
+                return size() > MAX_TRACKED_KEYS;
+            }
+        };
+    private long loads = 0;
+    private long shared = 0;
+    private long timedOut = 0;
+
+    /**
+     * Create a single flight group.
+     *
+     * @param timeout milliseconds to wait for a load in flight before giving
+     *                up
+     */
+    public SingleFlight(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Retrieve the application wide single flight group.
+     *
+     * @return the application wide single flight group
+     */
+    public static SingleFlight getInstance() {
+        return instance;
+    }
+
+    /**
+     * Load the value for a given key, or wait for and share the result of a
+     * load of the same key which is already in flight.
+     *
+     * @param <V>    type of the value
+     * @param key    key identifying the read
+     * @param loader loader to call if no load is in flight
+     * @return the loaded value
+     * @throws SQLException if unable to load the value
+     * @throws ServiceUnavailableException if the load in flight takes too
+     *                                     long
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String key, Loader<V> loader) throws SQLException {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = calls.putIfAbsent(key, call);
+
+        if (existing != null) {
+            record(key, false);
+            return (V) await(existing);
+        }
+
+        record(key, true);
+
+        try {
+            V value = loader.load();
+            call.complete(value);
+            return value;
+        } catch (SQLException | RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Retrieve statistics for the single flight group.
+     *
+     * @return point in time statistics
+     */
+    public synchronized Stats getStats() {
+        Map<String, KeyStats> copy = new LinkedHashMap<>();
+
+        for (Map.Entry<String, KeyStats> entry : keys.entrySet()) {
+            KeyStats stats = entry.getValue();
+            copy.put(entry.getKey(), new KeyStats(stats.loads, stats.shared));
+        }
+
+        return new Stats(calls.size(), loads, shared, timedOut, copy);
+    }
+
+    private synchronized void record(String key, boolean load) {
+        KeyStats stats = keys.computeIfAbsent(key, k -> new KeyStats(0, 0));
+
+        if (load) {
+            stats.loads++;
+            loads++;
+        } else {
+            stats.shared++;
+            shared++;
+        }
+    }
+
+    private Object await(
+        CompletableFuture<Object> call
+    ) throws SQLException {
+        try {
+            return call.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            synchronized (this) {
+                timedOut++;
+            }
+
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof SQLException) {
+                throw new SQLException(cause.getMessage(), cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Loads the value for a key.
+     *
+     * @param <V> type of the value
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+        /**
+         * Load the value.
+         *
+         * @return the loaded value
+         * @throws SQLException if unable to load the value
+         */
+        V load() throws SQLException;
+    }
+
+    /**
+     * Number of loads and shared results for a single key.
+     */
+    public static class KeyStats {
+        private long loads;
+        private long shared;
+
+        KeyStats(long loads, long shared) {
+            this.loads = loads;
+            this.shared = shared;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getShared() {
+            return shared;
+        }
+
+        /**
+         * Retrieve the fraction of calls which shared another call's result.
+         *
+         * @return the coalescing ratio, between 0 and 1
+         */
+        public double getCoalescingRatio() {
+            long calls = loads + shared;
+            return calls == 0 ? 0 : (double) shared / calls;
+        }
+    }
+
+    /**
+     * Point in time statistics for a single flight group.
+     */
+    public static class Stats {
+        private final int inFlight;
+        private final long loads;
+        private final long shared;
+        private final long timedOut;
+        private final Map<String, KeyStats> keys;
+
+        Stats(
+            int inFlight,
+            long loads,
+            long shared,
+            long timedOut,
+            Map<String, KeyStats> keys
+        ) {
+            this.inFlight = inFlight;
+            this.loads = loads;
+            this.shared = shared;
+            this.timedOut = timedOut;
+            this.keys = keys;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getShared() {
+            return shared;
+        }
+
+        public long getTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * Retrieve the fraction of calls which shared another call's result.
+         *
+         * @return the coalescing ratio, between 0 and 1
+         */
+        public double getCoalescingRatio() {
+            long calls = loads + shared;
+            return calls == 0 ? 0 : (double) shared / calls;
+        }
+
+        public Map<String, KeyStats> getKeys() {
+            return keys;
+        }
+    }
+}
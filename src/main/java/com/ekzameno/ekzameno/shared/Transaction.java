@@ -0,0 +1,131 @@
+package com.ekzameno.ekzameno.shared;
+
+import java.sql.SQLException;
+
+/**
+ * A single database transaction shared by every service call made while it is
+ * open, such as all of the calls made to serve one HTTP request.
+ *
+ * <p>
+ * A Transaction binds one {@link DBConnection}, {@link IdentityMap} and
+ * {@link UnitOfWork} to the current thread. Commits made through the
+ * UnitOfWork only flush changes, and rollbacks made through it only mark the
+ * Transaction as rollback only; the database transaction is committed or
+ * rolled back once by {@link #commit()} or {@link #rollback()}, and the
+ * connection is returned to the pool by {@link #close()}.
+ * </p>
+ */
+public class Transaction implements AutoCloseable {
+    private static final ThreadLocal<Transaction> current =
+        new ThreadLocal<>();
+    private final DBConnection dbConnection = new DBConnection(true);
+    private IdentityMap identityMap;
+    private UnitOfWork unitOfWork;
+    private Thread owner = null;
+    private volatile boolean rollbackOnly = false;
+
+    private Transaction() { }
+
+    /**
+     * Begin a new Transaction and attach it to the current thread.
+     *
+     * @return the new Transaction
+     */
+    public static Transaction begin() {
+        Transaction transaction = new Transaction();
+        IdentityMap.newCurrent();
+        UnitOfWork.newCurrent();
+        transaction.identityMap = IdentityMap.getCurrent();
+        transaction.unitOfWork = UnitOfWork.getCurrent();
+        transaction.owner = Thread.currentThread();
+        DBConnection.bind(transaction.dbConnection);
+        current.set(transaction);
+        return transaction;
+    }
+
+    /**
+     * Retrieve the Transaction attached to the current thread.
+     *
+     * @return the attached Transaction, or null if there is none
+     */
+    public static Transaction getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Attach the Transaction to the current thread, so that work handed off
+     * to another thread continues to use the same connection.
+     */
+    public synchronized void attach() {
+        if (owner == Thread.currentThread()) {
+            return;
+        }
+
+        DBConnection.bind(dbConnection);
+        IdentityMap.bind(identityMap);
+        UnitOfWork.bind(unitOfWork);
+        current.set(this);
+        owner = Thread.currentThread();
+    }
+
+    /**
+     * Detach the Transaction from the current thread.
+     */
+    public synchronized void detach() {
+        if (owner != Thread.currentThread()) {
+            return;
+        }
+
+        identityMap = IdentityMap.unbind();
+        unitOfWork = UnitOfWork.unbind();
+        DBConnection.unbind();
+        current.remove();
+        owner = null;
+    }
+
+    /**
+     * Mark the Transaction so that it can only be rolled back, because a
+     * change made while it was open failed.
+     */
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    /**
+     * Whether the Transaction can only be rolled back.
+     *
+     * @return true if the Transaction can only be rolled back
+     */
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    /**
+     * Commit the database transaction, or roll it back if it has been marked
+     * rollback only.
+     *
+     * @throws SQLException if unable to commit the transaction
+     */
+    public void commit() throws SQLException {
+        dbConnection.complete(!rollbackOnly);
+    }
+
+    /**
+     * Rollback the database transaction.
+     *
+     * @throws SQLException if unable to rollback the transaction
+     */
+    public void rollback() throws SQLException {
+        dbConnection.complete(false);
+    }
+
+    /**
+     * Detach the Transaction and return its connection to the pool,
+     * discarding any changes that have not been committed.
+     */
+    @Override
+    public void close() {
+        detach();
+        dbConnection.release();
+    }
+}
@@ -2,19 +2,49 @@ package com.ekzameno.ekzameno.shared;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
 
+import com.ekzameno.ekzameno.mappers.EntityCache;
 import com.ekzameno.ekzameno.mappers.Mapper;
+import com.ekzameno.ekzameno.models.Enrolment;
+import com.ekzameno.ekzameno.models.Exam;
+import com.ekzameno.ekzameno.models.ExamSubmission;
+import com.ekzameno.ekzameno.models.InstructorSubject;
 import com.ekzameno.ekzameno.models.Model;
+import com.ekzameno.ekzameno.models.Option;
+import com.ekzameno.ekzameno.models.Question;
+import com.ekzameno.ekzameno.models.QuestionSubmission;
+import com.ekzameno.ekzameno.models.Subject;
+import com.ekzameno.ekzameno.models.User;
 
 /**
  * Keeps track of changes to models.
  */
 public class UnitOfWork {
     private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
-    private final List<Model> newObjects = new ArrayList<>();
-    private final List<Model> dirtyObjects = new ArrayList<>();
-    private final List<Model> deletedObjects = new ArrayList<>();
+    // Models are flushed in foreign key order, so referenced rows exist
+    // before the rows that reference them.
+    private static final List<Class<? extends Model>> FLUSH_ORDER = List.of(
+        User.class,
+        Subject.class,
+        InstructorSubject.class,
+        Enrolment.class,
+        Exam.class,
+        Question.class,
+        Option.class,
+        ExamSubmission.class,
+        QuestionSubmission.class
+    );
+    // Models are tracked by ID rather than equals/hashCode, which depend on
+    // fields that change while a model is registered.
+    private final Map<UUID, Model> newObjects = new LinkedHashMap<>();
+    private final Map<UUID, Model> dirtyObjects = new LinkedHashMap<>();
+    private final Map<UUID, Model> deletedObjects = new LinkedHashMap<>();
 
     /**
      * Create a new thread local UnitOfWork.
@@ -36,11 +66,22 @@ public class UnitOfWork {
         return current.get();
     }
 
+    static void bind(UnitOfWork unitOfWork) {
+        current.set(unitOfWork);
+    }
+
+    static UnitOfWork unbind() {
+        UnitOfWork unitOfWork = current.get();
+        current.set(null);
+        return unitOfWork;
+    }
+
     private boolean objectInAnyList(Model obj) {
+        UUID id = obj.getId();
         return (
-            dirtyObjects.contains(obj) ||
-            deletedObjects.contains(obj) ||
-            newObjects.contains(obj));
+            dirtyObjects.containsKey(id) ||
+            deletedObjects.containsKey(id) ||
+            newObjects.containsKey(id));
     }
 
     /**
@@ -53,7 +94,7 @@ public class UnitOfWork {
             return;
         }
 
-        newObjects.add(obj);
+        newObjects.put(obj.getId(), obj);
     }
 
     /**
@@ -66,7 +107,7 @@ public class UnitOfWork {
             return;
         }
 
-        dirtyObjects.add(obj);
+        dirtyObjects.put(obj.getId(), obj);
     }
 
     /**
@@ -75,54 +116,173 @@ public class UnitOfWork {
      * @param obj model to register
      */
     public void registerDeleted(Model obj) {
-        if (newObjects.remove(obj)) {
+        if (newObjects.remove(obj.getId()) != null) {
             return;
         }
 
-        dirtyObjects.remove(obj);
-        deletedObjects.add(obj);
+        dirtyObjects.remove(obj.getId());
+        deletedObjects.put(obj.getId(), obj);
     }
 
     /**
-     * Rollback the transaction.
+     * Whether any models have been registered as new, dirty or deleted
+     * since the unit of work was last committed.
+     *
+     * @return true if there are pending changes, false otherwise
+     */
+    public boolean hasChanges() {
+        return !newObjects.isEmpty() ||
+            !dirtyObjects.isEmpty() ||
+            !deletedObjects.isEmpty();
+    }
+
+    /**
+     * Discard pending changes and rollback the transaction. Within a
+     * {@link Transaction} the rollback is deferred by marking it rollback
+     * only, so the rest of the request is not run outside of it.
      *
      * @throws SQLException if unable to rollback the transaction
      */
     public void rollback() throws SQLException {
+        clear();
+        Transaction transaction = Transaction.getCurrent();
+
+        if (transaction != null) {
+            transaction.setRollbackOnly();
+            return;
+        }
+
         try {
-            DBConnection.getCurrent().getConnection().rollback();
-        } catch (SQLException e) {
-            throw e;
+            DBConnection.getCurrent().rollback();
         } finally {
             reset();
         }
     }
 
     /**
-     * Commit changes to models.
+     * Commit changes to models. Changes are grouped by mapper and flushed as
+     * batches, with parent tables inserted before the tables that reference
+     * them and deleted after.
      *
      * @throws SQLException if unable to commit changes
      */
     public void commit() throws SQLException {
         try {
-            for (Model obj : newObjects) {
-                Mapper.getMapper(obj.getClass()).insert(obj);
+            List<UUID> changed = getPublishedIds();
+            List<UUID> principals =
+                getChangedIds(Mapper::publishesPrincipalChanges);
+            EntityCache.invalidate(changed);
+            EntityCache.invalidatePrincipals(principals);
+
+            for (List<Model> group : groupByClass(newObjects, false)) {
+                Mapper.getMapper(group.get(0).getClass()).insertAll(group);
+            }
+
+            for (List<Model> group : groupByClass(dirtyObjects, false)) {
+                Mapper.getMapper(group.get(0).getClass()).updateAll(group);
+            }
+
+            for (List<Model> group : groupByClass(deletedObjects, true)) {
+                Mapper.getMapper(group.get(0).getClass()).deleteAll(group);
             }
 
-            for (Model obj : dirtyObjects) {
-                Mapper.getMapper(obj.getClass()).update(obj);
+            // Evict again in case another request cached the old rows while
+            // the changes were being flushed.
+            EntityCache.evict(changed);
+            EntityCache.evictPrincipals(principals);
+
+            for (Model obj : newObjects.values()) {
+                obj.markClean();
             }
 
-            for (Model obj : deletedObjects) {
-                Mapper.getMapper(obj.getClass()).delete(obj);
+            for (Model obj : dirtyObjects.values()) {
+                obj.markClean();
             }
 
-            DBConnection.getCurrent().getConnection().commit();
-        } catch (SQLException e) {
-            throw e;
+            DBConnection.getCurrent().commit();
         } finally {
-            reset();
+            clear();
+
+            // A Transaction keeps its identity map until it completes, so
+            // models read later in the same request keep their identity.
+            if (Transaction.getCurrent() == null) {
+                reset();
+            }
+        }
+    }
+
+    private void clear() {
+        newObjects.clear();
+        dirtyObjects.clear();
+        deletedObjects.clear();
+    }
+
+    private List<UUID> getPublishedIds() throws SQLException {
+        List<UUID> ids = getChangedIds(Mapper::publishesChanges);
+
+        for (List<Model> group : groupByClass(deletedObjects, false)) {
+            List<UUID> deleted = new ArrayList<>();
+
+            for (Model obj : group) {
+                deleted.add(obj.getId());
+            }
+
+            ids.addAll(
+                Mapper.getMapper(group.get(0).getClass())
+                    .findCascadedIds(deleted)
+            );
+        }
+
+        return ids;
+    }
+
+    private List<UUID> getChangedIds(Predicate<Mapper<?>> filter) {
+        List<UUID> ids = new ArrayList<>();
+
+        for (Map<UUID, Model> objects : List.of(
+            newObjects,
+            dirtyObjects,
+            deletedObjects
+        )) {
+            for (Model obj : objects.values()) {
+                if (filter.test(Mapper.getMapper(obj.getClass()))) {
+                    ids.add(obj.getId());
+                }
+            }
         }
+
+        return ids;
+    }
+
+    private List<List<Model>> groupByClass(
+        Map<UUID, Model> objects,
+        boolean reverse
+    ) {
+        Map<Class<?>, List<Model>> groups = new LinkedHashMap<>();
+
+        for (Model obj : objects.values()) {
+            groups
+                .computeIfAbsent(obj.getClass(), k -> new ArrayList<>())
+                .add(obj);
+        }
+
+        Comparator<List<Model>> order = Comparator.comparingInt(
+            group -> flushOrder(group.get(0).getClass())
+        );
+
+        List<List<Model>> sorted = new ArrayList<>(groups.values());
+        sorted.sort(reverse ? order.reversed() : order);
+        return sorted;
+    }
+
+    private static int flushOrder(Class<?> klass) {
+        for (int i = 0; i < FLUSH_ORDER.size(); i++) {
+            if (FLUSH_ORDER.get(i).isAssignableFrom(klass)) {
+                return i;
+            }
+        }
+
+        return FLUSH_ORDER.size();
     }
 
     /**